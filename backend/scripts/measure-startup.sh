@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Time to first request and resident memory of one build of the API, e.g.
+#   scripts/measure-startup.sh java -jar target/skydan-api-0.0.1-SNAPSHOT.jar
+#   scripts/measure-startup.sh target/skydan-api
+# The command gets --server.port=$PORT appended; point SPRING_DATASOURCE_URL at a migrated database first.
+set -euo pipefail
+
+PORT=${PORT:-8089}
+URL="http://localhost:${PORT}/ping"
+
+start=$(date +%s%N)
+"$@" --server.port="${PORT}" >/dev/null 2>&1 &
+pid=$!
+trap 'kill "${pid}" 2>/dev/null || true' EXIT
+
+until curl -sf -o /dev/null "${URL}"; do
+  if ! kill -0 "${pid}" 2>/dev/null; then
+    echo "the application exited before answering ${URL}" >&2
+    exit 1
+  fi
+  sleep 0.01
+done
+first_request_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+rss_kb=$(awk '/^VmRSS:/ { print $2 }' "/proc/${pid}/status")
+
+echo "time to first request: ${first_request_ms} ms"
+echo "resident set size:     $(( rss_kb / 1024 )) MB"
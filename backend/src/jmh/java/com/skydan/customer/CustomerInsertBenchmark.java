@@ -0,0 +1,82 @@
+package com.skydan.customer;
+
+import com.skydan.Main;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts per second through the JPA path against a real PostgreSQL. {@code save} is the registration path, one
+ * transaction per customer; {@code insertCustomers} is the bulk path used by imports. A {@code batchSize} of 1
+ * switches Hibernate JDBC batching off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    // 50 is the configured spring.jpa.properties.hibernate.jdbc.batch_size
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private PostgreSQLContainer<?> postgreSQLContainer;
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private CustomerDao customerDao;
+    private int sequence;
+
+    @Setup
+    public void setUp() {
+        postgreSQLContainer = new PostgreSQLContainer<>("postgres");
+        postgreSQLContainer.start();
+        context = new SpringApplicationBuilder(Main.class).run(
+                "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                "--spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.jpa.show-sql=false",
+                "--server.port=0"
+        );
+        customerRepository = context.getBean(CustomerRepository.class);
+        customerDao = context.getBean("jpa", CustomerDao.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgreSQLContainer.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void save() {
+        for (Customer customer : customers()) {
+            customerRepository.save(customer);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] insertCustomers() {
+        return customerDao.insertCustomers(customers());
+    }
+
+    private List<Customer> customers() {
+        List<Customer> customers = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            customers.add(new Customer(
+                    "Customer", "customer-" + sequence++ + "@benchmark.test", "password", 30, "FEMALE"));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,68 @@
+package com.skydan.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private final CustomerRawMapper customerRawMapper = new CustomerRawMapper();
+    private Customer customer;
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        customer = new Customer(1, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        customer.setVersion(0);
+        resultSet = customerRow();
+    }
+
+    @Benchmark
+    public CustomerDTO dtoMapperApply() {
+        return customerDTOMapper.apply(customer);
+    }
+
+    @Benchmark
+    public Customer rawMapperMapRow() throws SQLException {
+        return customerRawMapper.mapRow(resultSet, 0);
+    }
+
+    // an in-memory ResultSet positioned on one customer row, so only the mapping itself is measured
+    private static CachedRowSet customerRow() throws SQLException {
+        String[] columns = {"id", "name", "email", "password", "age", "gender", "version"};
+        int[] types = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER};
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        rowSet.moveToInsertRow();
+        rowSet.updateInt("id", 1);
+        rowSet.updateString("name", "Alex");
+        rowSet.updateString("email", "alex@gmail.com");
+        rowSet.updateString("password", "password");
+        rowSet.updateInt("age", 21);
+        rowSet.updateString("gender", "MALE");
+        rowSet.updateInt("version", 0);
+        rowSet.insertRow();
+        rowSet.moveToCurrentRow();
+        rowSet.first();
+        return rowSet;
+    }
+}
@@ -0,0 +1,51 @@
+package com.skydan.jwt;
+
+import com.skydan.customer.CustomerListDataAccessService;
+import com.skydan.customer.CustomerUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean statelessPrincipal;
+
+    private JWTAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JWTUtil jwtUtil = new JWTUtil(10_000, meterRegistry);
+        CustomerUserDetailsService userDetailsService = new CustomerUserDetailsService(
+                new CustomerListDataAccessService(), 10_000, Duration.ofMinutes(5), meterRegistry
+        );
+        filter = new JWTAuthenticationFilter(jwtUtil, userDetailsService, new TokenDenyList(), statelessPrincipal);
+        authorization = "Bearer " + jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.skydan.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTUtilBenchmark {
+
+    // 0 disables the claims cache, so every call pays for signature verification
+    @Param({"0", "10000"})
+    public long claimsCacheSize;
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil(claimsCacheSize, new SimpleMeterRegistry());
+        token = jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, "alex@gmail.com");
+    }
+}
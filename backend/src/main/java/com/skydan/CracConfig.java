@@ -0,0 +1,41 @@
+package com.skydan;
+
+import com.skydan.datasource.HikariPoolCheckpointResource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.crac.Core;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("crac & !reactive")
+public class CracConfig {
+
+    // the CRaC context only keeps weak references, the beans are what keep the resources registered
+    @Bean
+    public HikariPoolCheckpointResource hikariPoolCheckpointResource(
+            ObjectProvider<HikariDataSource> dataSources,
+            @Value("${datasource.checkpoint.drain-timeout}") Duration drainTimeout
+    ) {
+        HikariPoolCheckpointResource resource =
+                new HikariPoolCheckpointResource(dataSources.orderedStream().toList(), drainTimeout);
+        Core.getGlobalContext().register(resource);
+        return resource;
+    }
+
+    @Bean
+    public TomcatCheckpointResource tomcatCheckpointResource() {
+        return new TomcatCheckpointResource();
+    }
+
+    @Bean
+    public TomcatConnectorCustomizer checkpointConnectorCustomizer() {
+        // binding in start() instead of init() is what lets a stopped connector release its port
+        return connector -> connector.setProperty("bindOnInit", "false");
+    }
+}
@@ -1,9 +1,14 @@
 package com.skydan;
 
+import com.skydan.customer.CustomerRuntimeHints;
+import com.skydan.datasource.PersistenceRuntimeHints;
+import com.skydan.jwt.JWTRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints({JWTRuntimeHints.class, PersistenceRuntimeHints.class, CustomerRuntimeHints.class})
 public class Main {
 
     public static void main(String[] args) {
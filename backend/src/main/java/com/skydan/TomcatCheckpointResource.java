@@ -0,0 +1,42 @@
+package com.skydan;
+
+import org.apache.catalina.Service;
+import org.apache.catalina.connector.Connector;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Stops the Tomcat connectors before a CRaC checkpoint and starts them again after restore, so no listening or
+ * accepted socket is part of the image. The connectors must not bind on init, otherwise stopping keeps the port open.
+ */
+public class TomcatCheckpointResource implements Resource, ApplicationListener<ServletWebServerInitializedEvent> {
+
+    private volatile Service service;
+
+    @Override
+    public void onApplicationEvent(ServletWebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer tomcat) {
+            service = tomcat.getTomcat().getService();
+            // registered after the pools, so requests stop before connections are drained and resume after refill
+            Core.getGlobalContext().register(this);
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        for (Connector connector : service.findConnectors()) {
+            connector.stop();
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) throws Exception {
+        for (Connector connector : service.findConnectors()) {
+            connector.start();
+        }
+    }
+}
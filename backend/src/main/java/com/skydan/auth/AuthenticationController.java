@@ -1,5 +1,6 @@
 package com.skydan.auth;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("api/v1/auth")
+@Profile("!reactive")
 public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
@@ -4,12 +4,14 @@ import com.skydan.customer.Customer;
 import com.skydan.customer.CustomerDTO;
 import com.skydan.customer.CustomerDTOMapper;
 import com.skydan.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile("!reactive")
 public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
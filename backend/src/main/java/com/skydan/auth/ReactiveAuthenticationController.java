@@ -0,0 +1,31 @@
+package com.skydan.auth;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("api/v1/auth")
+@Profile("reactive")
+public class ReactiveAuthenticationController {
+
+    private final ReactiveAuthenticationService authenticationService;
+
+    public ReactiveAuthenticationController(ReactiveAuthenticationService authenticationService) {
+        this.authenticationService = authenticationService;
+    }
+
+    @PostMapping("login")
+    public Mono<ResponseEntity<AuthenticationResponse>> login(@RequestBody AuthenticationRequest request) {
+        return authenticationService.login(request)
+                .map(response -> ResponseEntity.ok()
+                        .header(HttpHeaders.AUTHORIZATION, response.token())
+                        .body(response));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.skydan.auth;
+
+import com.skydan.customer.Customer;
+import com.skydan.customer.CustomerDTO;
+import com.skydan.customer.CustomerDTOMapper;
+import com.skydan.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveAuthenticationService {
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final JWTUtil jwtUtil;
+
+    public ReactiveAuthenticationService(ReactiveAuthenticationManager authenticationManager,
+                                         CustomerDTOMapper customerDTOMapper,
+                                         JWTUtil jwtUtil) {
+        this.authenticationManager = authenticationManager;
+        this.customerDTOMapper = customerDTOMapper;
+        this.jwtUtil = jwtUtil;
+    }
+
+    public Mono<AuthenticationResponse> login(AuthenticationRequest request) {
+        return authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                request.username(),
+                                request.password()
+                        )
+                )
+                .map(authentication -> {
+                    Customer principal = (Customer) authentication.getPrincipal();
+                    CustomerDTO customerDTO = customerDTOMapper.apply(principal);
+                    String token = jwtUtil.issueToken(customerDTO.username(), customerDTO.roles());
+                    return new AuthenticationResponse(token, customerDTO);
+                });
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.skydan.customer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves {@link #selectCustomerViewById} through a {@link CustomerCache} and evicts the id on every write to it.
+ * {@link #selectCustomerById} is not cached: it is read right before a write and must see the current row.
+ * Inserts need no invalidation because misses are not cached and new rows get ids nobody has read yet.
+ * The jdbc and jpa DAOs share one cache, so a write through either is seen by reads through the other.
+ * Inside a transaction the id is evicted again on completion, since a read before the commit can cache the old row.
+ */
+public class CachingCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+    private final CustomerCache customerCache;
+
+    public CachingCustomerDao(CustomerDao delegate, CustomerCache customerCache) {
+        this.delegate = delegate;
+        this.customerCache = customerCache;
+    }
+
+    public CustomerDao getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
+        return delegate.selectCustomers(afterId, limit);
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        return delegate.searchCustomers(search, limit);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        return customerCache.get(customerId, delegate::selectCustomerViewById);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        return delegate.selectCustomerById(customerId);
+    }
+
+    @Override
+    public boolean insertCustomer(Customer customer) {
+        return delegate.insertCustomer(customer);
+    }
+
+    @Override
+    public int[] insertCustomers(List<Customer> customers) {
+        return delegate.insertCustomers(customers);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return delegate.existsCustomerWithEmail(email);
+    }
+
+    @Override
+    public List<String> selectExistingEmails(List<String> emails) {
+        return delegate.selectExistingEmails(emails);
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        try {
+            return delegate.deleteCustomerById(customerId);
+        } finally {
+            evict(customerId);
+        }
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Long customerId) {
+        return delegate.existsCustomerWithId(customerId);
+    }
+
+    @Override
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        try {
+            return delegate.updateCustomer(update);
+        } finally {
+            // also on failure: a stale version in the cache would otherwise keep failing the same update
+            evict(update.getId());
+        }
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return delegate.selectUserByEmail(email);
+    }
+
+    private void evict(Long customerId) {
+        customerCache.evict(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    customerCache.evict(customerId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.skydan.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class CaffeineCustomerCache implements CustomerCache {
+
+    private final Cache<Long, CustomerView> customers;
+
+    public CaffeineCustomerCache(long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.customers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "customer.by-id");
+    }
+
+    @Override
+    public Optional<CustomerView> get(Long customerId, Function<Long, Optional<CustomerView>> loader) {
+        // Cache.get computes atomically per key, so concurrent misses on a hot id share one load
+        return Optional.ofNullable(customers.get(customerId, key -> loader.apply(key).orElse(null)));
+    }
+
+    @Override
+    public void evict(Long customerId) {
+        customers.invalidate(customerId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.skydan.customer;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@DynamicUpdate
 @Table(
         name = "customer",
         uniqueConstraints = {
@@ -21,17 +23,22 @@ import java.util.Objects;
 )
 public class Customer implements UserDetails {
 
+    // the single authority every customer has
+    static final String ROLE = "ROLE_USER";
+
     @Id
     @SequenceGenerator(
             name = "customer_id_seq",
             sequenceName = "customer_id_seq",
-            allocationSize = 1
+            // must match the INCREMENT BY of customer_id_seq (V5), which schema validation checks
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
             generator = "customer_id_seq"
     )
-    private Integer id;
+    // a long like the BIGSERIAL column: every insert that takes the column default skips a block of 50 ids
+    private Long id;
 
     @Column(
             nullable = false
@@ -58,6 +65,12 @@ public class Customer implements UserDetails {
     )
     private String password;
 
+    @Version
+    @Column(
+            nullable = false
+    )
+    private Integer version;
+
     public Customer() {
     }
 
@@ -73,7 +86,7 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
-    public Customer(Integer id,
+    public Customer(Long id,
                     String name,
                     String email,
                     String password,
@@ -87,11 +100,11 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
-    public Integer getId() {
+    public Long getId() {
         return id;
     }
 
-    public void setId(Integer id) {
+    public void setId(Long id) {
         this.id = id;
     }
 
@@ -127,6 +140,23 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    /**
+     * Detached copy including the version, for stores that must not share mutable instances with callers.
+     */
+    Customer copy() {
+        Customer copy = new Customer(id, name, email, password, age, gender);
+        copy.setVersion(version);
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -153,7 +183,7 @@ public class Customer implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return List.of(new SimpleGrantedAuthority(ROLE));
     }
 
     @Override
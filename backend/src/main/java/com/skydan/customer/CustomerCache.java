@@ -0,0 +1,15 @@
+package com.skydan.customer;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of customer views by id, used by {@link CachingCustomerDao}. Implementations must
+ * load each missing id at most once at a time. Views are immutable, so they can be shared without copying.
+ */
+public interface CustomerCache {
+
+    Optional<CustomerView> get(Long customerId, Function<Long, Optional<CustomerView>> loader);
+
+    void evict(Long customerId);
+}
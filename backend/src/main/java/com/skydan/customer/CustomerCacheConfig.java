@@ -0,0 +1,63 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!reactive")
+public class CustomerCacheConfig {
+
+    @Value("${customer.cache.ttl}")
+    private Duration ttl;
+
+    @Bean
+    @Profile("!redis-cache")
+    public CustomerCache caffeineCustomerCache(@Value("${customer.cache.maximum-size}") long maximumSize,
+                                               MeterRegistry meterRegistry) {
+        return new CaffeineCustomerCache(maximumSize, ttl, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @Profile("redis-cache")
+    public RedisClient customerCacheRedisClient(@Value("${customer.cache.redis.url}") String url,
+                                                @Value("${customer.cache.redis.timeout}") Duration timeout) {
+        RedisClient redisClient = RedisClient.create(url);
+        redisClient.setOptions(redisClientOptions(timeout));
+        return redisClient;
+    }
+
+    static ClientOptions redisClientOptions(Duration timeout) {
+        return ClientOptions.builder()
+                // every command gives up after the timeout, so a slow cache degrades to a cache miss
+                .timeoutOptions(TimeoutOptions.enabled(timeout))
+                // RESP2 keeps the cache usable with any Redis-protocol server, not only Redis 6+
+                .protocolVersion(ProtocolVersion.RESP2)
+                // fail fast while reconnecting instead of queueing commands until they time out
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @Profile("redis-cache")
+    public StatefulRedisConnection<String, String> customerCacheRedisConnection(RedisClient customerCacheRedisClient) {
+        return customerCacheRedisClient.connect();
+    }
+
+    @Bean
+    @Profile("redis-cache")
+    public CustomerCache redisCustomerCache(StatefulRedisConnection<String, String> customerCacheRedisConnection,
+                                            ObjectMapper objectMapper) {
+        return new RedisCustomerCache(customerCacheRedisConnection, objectMapper, ttl);
+    }
+}
@@ -0,0 +1,20 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of the customer change feed. {@code customer} is the row after the change and is absent for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CustomerChangeEvent(
+        long offset,
+        Type type,
+        Long customerId,
+        CustomerDTO customer
+) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,286 @@
+package com.skydan.customer;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the latest customer changes in a bounded ring buffer and pushes them to SSE subscribers.
+ * <p>
+ * Event ids are {@code <stream>-<offset>}, where the stream id changes on every start, so a client can
+ * resume with {@code Last-Event-ID}. Each subscriber only holds its last delivered offset and is drained
+ * by a sender thread, never by the publishing request. A subscriber that falls further behind than the
+ * buffer, or resumes from an unknown stream, receives a {@code reset} event and should reload the list.
+ * <p>
+ * Writes block, so a client that stops reading holds a sender thread. The sender pool is fixed and its queue
+ * bounded: a subscriber whose drain cannot be queued is completed, and one whose send has been blocked longer
+ * than {@code customer.changes.send-timeout} is dropped and its sender interrupted, so stalled clients cost at
+ * most the pool and the send timeout, never more threads. Dropped clients reconnect and resume from
+ * {@code Last-Event-ID}. If the container ignores the interrupt, its write timeout
+ * ({@code server.tomcat.connection-timeout}) still fails the send. Heartbeats go through the same
+ * per-subscriber drain.
+ */
+@Component
+@Profile("!reactive")
+public class CustomerChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    private final String streamId = UUID.randomUUID().toString().substring(0, 8);
+    private final CustomerChangeEvent[] buffer;
+    private long head;
+
+    private final Duration timeout;
+    private final long sendTimeoutNanos;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats;
+
+    public CustomerChangeFeed(@Value("${customer.changes.buffer-size}") int bufferSize,
+                              @Value("${customer.changes.timeout}") Duration timeout,
+                              @Value("${customer.changes.heartbeat}") Duration heartbeat,
+                              @Value("${customer.changes.senders}") int senders,
+                              @Value("${customer.changes.send-queue}") int sendQueue,
+                              @Value("${customer.changes.send-timeout}") Duration sendTimeout) {
+        this.buffer = new CustomerChangeEvent[bufferSize];
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        // a subscription drains on one thread at a time, so a queued drain never waits behind its own subscriber
+        this.senders = new ThreadPoolExecutor(senders, senders, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueue), daemonThreads("customer-changes-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("customer-changes-heartbeat-"));
+        this.heartbeats.scheduleAtFixedRate(
+                this::sendHeartbeats, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheck = Math.max(sendTimeout.toMillis() / 2, 1);
+        this.heartbeats.scheduleAtFixedRate(
+                this::dropStalledSubscribers, stallCheck, stallCheck, TimeUnit.MILLISECONDS);
+    }
+
+    public void publish(CustomerChangeEvent.Type type, Long customerId, CustomerDTO customer) {
+        synchronized (this) {
+            head++;
+            buffer[(int) (head % buffer.length)] = new CustomerChangeEvent(head, type, customerId, customer);
+        }
+        subscriptions.forEach(Subscription::schedule);
+    }
+
+    /**
+     * @param lastEventId the id of the last event the client saw, or {@code null} to receive only new changes
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(emitter, resumeOffset(lastEventId));
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        subscription.schedule();
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    int largestSenderCount() {
+        return senders.getLargestPoolSize();
+    }
+
+    // runs before the web server stops, so the streams end cleanly; clients reconnect and get a reset from the new stream
+    @EventListener(ContextClosedEvent.class)
+    void closeStreams() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    // -1 asks for a reset before the first live event
+    private synchronized long resumeOffset(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return head;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(streamId)) {
+            return -1;
+        }
+        try {
+            long offset = Long.parseLong(lastEventId.substring(separator + 1));
+            return offset >= 0 && offset <= head ? offset : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // null when events after the offset have already been overwritten
+    private synchronized List<CustomerChangeEvent> eventsAfter(long offset) {
+        if (offset < 0 || head - offset > buffer.length) {
+            return null;
+        }
+        List<CustomerChangeEvent> events = new ArrayList<>((int) (head - offset));
+        for (long next = offset + 1; next <= head; next++) {
+            events.add(buffer[(int) (next % buffer.length)]);
+        }
+        return events;
+    }
+
+    private synchronized long head() {
+        return head;
+    }
+
+    String eventId(long offset) {
+        return streamId + "-" + offset;
+    }
+
+    private void sendHeartbeats() {
+        // comments keep proxies from closing idle streams and surface clients that went away; the senders write
+        // them, so a blocked client cannot hold up the schedule
+        subscriptions.forEach(Subscription::heartbeat);
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscriptions.forEach(subscription -> subscription.dropIfStalled(now));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long lastOffset;
+        private volatile boolean heartbeatDue;
+        private volatile long sendStartedNanos;
+        // the thread blocked in a send, null between sends
+        private volatile Thread sender;
+
+        private Subscription(SseEmitter emitter, long lastOffset) {
+            this.emitter = emitter;
+            this.lastOffset = lastOffset;
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // every sender is busy and the queue is full; no send is in flight, so completing cannot block
+                    draining.set(false);
+                    if (subscriptions.remove(this)) {
+                        emitter.complete();
+                    }
+                }
+            }
+        }
+
+        void dropIfStalled(long now) {
+            Thread blocked = sender;
+            if (blocked != null && now - sendStartedNanos > sendTimeoutNanos && subscriptions.remove(this)) {
+                // the interrupted write fails and completes the emitter on the sender itself; completing it here would
+                // wait for the emitter's lock, which the blocked send holds
+                blocked.interrupt();
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void drain() {
+            try {
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    if (!send(SseEmitter.event().comment("heartbeat"))) {
+                        return;
+                    }
+                }
+                List<CustomerChangeEvent> events;
+                while (subscriptions.contains(this) && !(events = pending()).isEmpty()) {
+                    for (CustomerChangeEvent event : events) {
+                        if (!send(SseEmitter.event()
+                                .id(eventId(event.offset()))
+                                .name(event.type().name().toLowerCase(Locale.ROOT))
+                                .data(event, MediaType.APPLICATION_JSON))) {
+                            return;
+                        }
+                        lastOffset = event.offset();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // a publish or heartbeat that raced with the end of the loop found draining still set
+            if (subscriptions.contains(this) && (heartbeatDue || lastOffset < head())) {
+                schedule();
+            }
+        }
+
+        private List<CustomerChangeEvent> pending() {
+            List<CustomerChangeEvent> events = eventsAfter(lastOffset);
+            if (events != null) {
+                return events;
+            }
+            long resetTo = head();
+            if (send(SseEmitter.event().id(eventId(resetTo)).name(RESET_EVENT).data(""))) {
+                lastOffset = resetTo;
+            }
+            return List.of();
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                synchronized (this) {
+                    sendStartedNanos = System.nanoTime();
+                    sender = Thread.currentThread();
+                    emitter.send(event);
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                subscriptions.remove(this);
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                sender = null;
+            }
+        }
+    }
+}
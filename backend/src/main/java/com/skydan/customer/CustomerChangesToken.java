@@ -0,0 +1,10 @@
+package com.skydan.customer;
+
+/**
+ * A short-lived token for {@code GET /api/v1/customers/changes?access_token=...}, for clients such as
+ * EventSource that cannot send an Authorization header.
+ */
+public record CustomerChangesToken(
+        String token
+) {
+}
@@ -1,32 +1,96 @@
 package com.skydan.customer;
 
 import com.skydan.jwt.JWTUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/customers")
+@Profile("!reactive")
 public class CustomerController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    // browsers may keep the response but must revalidate it, which is what makes polling send If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final CustomerExportService customerExportService;
     private final JWTUtil jwtUtil;
+    private final CustomerChangeFeed customerChangeFeed;
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    public CustomerController(CustomerService customerService,
+                              CustomerImportService customerImportService,
+                              CustomerExportService customerExportService,
+                              JWTUtil jwtUtil,
+                              CustomerChangeFeed customerChangeFeed) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.customerExportService = customerExportService;
         this.jwtUtil = jwtUtil;
+        this.customerChangeFeed = customerChangeFeed;
     }
 
     @GetMapping
-    public List<CustomerDTO> getCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<CustomerDTO>> getCustomers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "emailPrefix", required = false) String emailPrefix,
+            @RequestParam(value = "ageMin", required = false) Integer ageMin,
+            @RequestParam(value = "ageMax", required = false) Integer ageMax,
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "sort", required = false) String sort) {
+        CustomerSearch search = new CustomerSearch(name, emailPrefix, ageMin, ageMax, gender, CustomerSort.parse(sort));
+        CustomerPage page = customerService.getCustomers(search, after, limit);
+        // a matching If-None-Match turns this into a 304 before the body is serialized
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(page.eTag())
+                .cacheControl(REVALIDATE);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.customers());
+    }
+
+    // EventSource resends the last id on reconnect; "after" lets other clients resume the same way
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+            @RequestParam(value = "after", required = false) String after) {
+        return customerChangeFeed.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    @PostMapping("changes/token")
+    public CustomerChangesToken issueChangesToken(Authentication authentication) {
+        return new CustomerChangesToken(jwtUtil.issueStreamToken(
+                authentication.getName(),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()
+        ));
     }
 
     @GetMapping("{customerId}")
-    public CustomerDTO getCustomer(@PathVariable("customerId") Integer customerId) {
-        return customerService.getCustomer(customerId);
+    public ResponseEntity<CustomerDTO> getCustomer(@PathVariable("customerId") Long customerId) {
+        VersionedCustomer customer = customerService.getCustomer(customerId);
+        return ResponseEntity.ok()
+                .eTag(customer.eTag())
+                .cacheControl(REVALIDATE)
+                .body(customer.customer());
     }
 
     @PostMapping
@@ -38,16 +102,45 @@ public class CustomerController {
                 .build();
     }
 
+    @PostMapping(
+            value = "bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}
+    )
+    public CustomerImportReport importCustomers(InputStream body) throws IOException {
+        return customerImportService.importCustomers(body);
+    }
+
+    // written to the response as rows arrive, so the export is never held in memory
+    @GetMapping("export")
+    public void exportCustomers(@RequestParam(value = "format", required = false) String format,
+                                HttpServletResponse response) throws IOException {
+        CustomerExportFormat exportFormat = CustomerExportFormat.parse(format);
+        response.setContentType(exportFormat.mediaType());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName()).build().toString()
+        );
+        customerExportService.exportCustomers(exportFormat, response.getOutputStream());
+    }
+
     @DeleteMapping("{customerId}")
     public void deleteCustomer(
-            @PathVariable("customerId") Integer customerId) {
+            @PathVariable("customerId") Long customerId) {
         customerService.deleteCustomerById(customerId);
     }
 
     @PutMapping("{customerId}")
-    public void updateCustomer(
-            @PathVariable("customerId") Integer customerId,
+    public ResponseEntity<CustomerDTO> updateCustomer(
+            @PathVariable("customerId") Long customerId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody CustomerUpdateRequest updateRequest) {
-        customerService.updateCustomer(customerId, updateRequest);
+        VersionedCustomer updated = customerService.updateCustomer(
+                customerId,
+                updateRequest,
+                CustomerETags.expectedVersion(customerId, ifMatch)
+        );
+        return ResponseEntity.ok()
+                .eTag(updated.eTag())
+                .body(updated.customer());
     }
 }
@@ -0,0 +1,86 @@
+package com.skydan.customer;
+
+import com.skydan.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class CustomerCursor {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private CustomerCursor() {
+    }
+
+    static int pageSize(Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if(pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)
+            );
+        }
+        return pageSize;
+    }
+
+    static String encode(Long customerId) {
+        return encode(customerId.toString());
+    }
+
+    static Long decode(String cursor) {
+        if(cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(decodeToString(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor");
+        }
+    }
+
+    /**
+     * Cursor after {@code last} in the given order. The id order keeps the plain id cursor; other orders
+     * also carry the order and the sort value, as {@code [-]<field>:<id>:<value>}.
+     */
+    static String encode(CustomerSort sort, CustomerView last) {
+        CustomerSort.Field field = sort.field();
+        if(field == CustomerSort.Field.ID) {
+            return encode(last.id());
+        }
+        return encode("%s:%d:%s".formatted(token(sort), last.id(), field.valueOf(last)));
+    }
+
+    static CustomerSearch resume(CustomerSearch search, String cursor) {
+        if(cursor == null || cursor.isBlank()) {
+            return search;
+        }
+        CustomerSort.Field field = search.sort().field();
+        if(field == CustomerSort.Field.ID) {
+            return search.after(decode(cursor), null);
+        }
+        try {
+            String[] parts = decodeToString(cursor).split(":", 3);
+            // a cursor from another order would resume at an unrelated position
+            if(parts.length != 3 || !parts[0].equals(token(search.sort()))) {
+                throw new RequestValidationException("invalid cursor");
+            }
+            return search.after(Long.valueOf(parts[1]), field.parse(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor");
+        }
+    }
+
+    private static String token(CustomerSort sort) {
+        return (sort.descending() ? "-" : "") + sort.field().column();
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeToString(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,7 @@ package com.skydan.customer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -24,4 +25,16 @@ public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
                 customer.getUsername()
         );
     }
+
+    public CustomerDTO apply(CustomerView customer) {
+        return new CustomerDTO(
+                customer.id(),
+                customer.name(),
+                customer.email(),
+                customer.age(),
+                customer.gender(),
+                List.of(Customer.ROLE),
+                customer.email()
+        );
+    }
 }
@@ -5,11 +5,35 @@ import java.util.Optional;
 
 public interface CustomerDao {
     List<Customer> selectAllCustomers();
-    Optional<Customer> selectCustomerById(Integer customerId);
-    void insertCustomer(Customer customer);
+    List<CustomerView> selectCustomers(Long afterId, int limit);
+    /**
+     * Up to {@code limit} customers matching the filters of {@code search}, in its order, after its keyset position.
+     */
+    List<CustomerView> searchCustomers(CustomerSearch search, int limit);
+    Optional<CustomerView> selectCustomerViewById(Long customerId);
+    /**
+     * The full entity, for callers that go on to modify it; reads that only display a customer use {@link #selectCustomerViewById}.
+     */
+    Optional<Customer> selectCustomerById(Long customerId);
+    /**
+     * Inserts unless the email is taken; on success the generated id and version are set on {@code customer}.
+     */
+    boolean insertCustomer(Customer customer);
+    /**
+     * Inserts every customer whose email is free, setting the generated id and version like {@link #insertCustomer}.
+     * @return 1 for each inserted customer and 0 for each taken email, in list order
+     */
+    int[] insertCustomers(List<Customer> customers);
     boolean existsCustomerWithEmail(String email);
-    void deleteCustomerById(Integer customerId);
-    boolean existsCustomerWithId(Integer customerId);
-    void updateCustomer(Customer update);
+    List<String> selectExistingEmails(List<String> emails);
+    Optional<Customer> deleteCustomerById(Long customerId);
+    boolean existsCustomerWithId(Long customerId);
+    /**
+     * Writes the non-null fields of {@code update} to the customer with its id and, when its version is set, only if
+     * the stored version still matches. Nothing is written, and the version stays, when every given field already
+     * holds its value. Empty when there is no such customer.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the customer exists with another version
+     */
+    Optional<UpdatedCustomer> updateCustomer(Customer update);
     Optional<Customer> selectUserByEmail(String email);
 }
@@ -0,0 +1,54 @@
+package com.skydan.customer;
+
+import com.skydan.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Decorates every {@link CustomerDao} bean. Each one is wrapped in an {@link InstrumentedCustomerDao} tagged
+ * with its bean name ({@code jdbc}, {@code jpa}, {@code fake}), and the database-backed ones additionally in a
+ * {@link CachingCustomerDao} when a {@link CustomerCache} is configured, so {@code customer.dao} keeps timing
+ * database calls only. Under the {@code read-replicas} profile those are finally wrapped in a
+ * {@link ReplicaRoutingCustomerDao}. The wrappers are applied here to fix their order. This processor is deliberately
+ * unordered so it runs after the {@code @Repository} exception translation proxy has been applied, and wraps that proxy.
+ */
+@Component
+public class CustomerDaoPostProcessor implements BeanPostProcessor {
+
+    private static final Set<String> CACHED_IMPLEMENTATIONS = Set.of("jdbc", "jpa");
+
+    // resolved lazily: looking these up while post-processors are created would initialise them too early
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<CustomerCache> customerCache;
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+
+    public CustomerDaoPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                    ObjectProvider<CustomerCache> customerCache,
+                                    ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.meterRegistry = meterRegistry;
+        this.customerCache = customerCache;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CustomerDao customerDao)
+                || bean instanceof InstrumentedCustomerDao
+                || bean instanceof CachingCustomerDao
+                || bean instanceof ReplicaRoutingCustomerDao) {
+            return bean;
+        }
+        CustomerDao instrumented = new InstrumentedCustomerDao(customerDao, beanName, meterRegistry.getObject());
+        if (!CACHED_IMPLEMENTATIONS.contains(beanName)) {
+            return instrumented;
+        }
+        CustomerCache cache = customerCache.getIfAvailable();
+        CustomerDao cached = cache == null ? instrumented : new CachingCustomerDao(instrumented, cache);
+        ReadYourWrites pinning = readYourWrites.getIfAvailable();
+        return pinning == null ? cached : new ReplicaRoutingCustomerDao(cached, pinning);
+    }
+}
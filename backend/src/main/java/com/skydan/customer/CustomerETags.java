@@ -0,0 +1,56 @@
+package com.skydan.customer;
+
+import com.skydan.exception.PreconditionFailedException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong entity tags derived from the {@code version} column, so they can be compared without
+ * serializing anything. A customer is tagged {@code "<id>-<version>"}; a page hashes the ids and
+ * versions of its rows together with the next cursor, which covers inserts and deletes inside the page.
+ */
+final class CustomerETags {
+
+    private static final Pattern CUSTOMER_TAG = Pattern.compile("\"(\\d+)-(\\d{1,9})\"");
+
+    private CustomerETags() {
+    }
+
+    static String of(Customer customer) {
+        return "\"%d-%d\"".formatted(customer.getId(), customer.getVersion());
+    }
+
+    static String of(CustomerView customer) {
+        return "\"%d-%d\"".formatted(customer.id(), customer.version());
+    }
+
+    static String of(List<CustomerView> page, String nextCursor) {
+        StringBuilder rows = new StringBuilder();
+        for (CustomerView customer : page) {
+            rows.append(customer.id()).append(':').append(customer.version()).append(',');
+        }
+        rows.append(nextCursor);
+        return "\"" + DigestUtils.md5DigestAsHex(rows.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or {@code null} when the header is absent or {@code *}.
+     */
+    static Integer expectedVersion(Long customerId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = CUSTOMER_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches() || !matcher.group(1).equals(String.valueOf(customerId))) {
+            // weak, foreign or malformed tags never match under the strong comparison If-Match requires
+            throw new PreconditionFailedException(
+                    "If-Match %s does not match customer with id [%s]".formatted(ifMatch, customerId)
+            );
+        }
+        return Integer.valueOf(matcher.group(2));
+    }
+}
@@ -0,0 +1,40 @@
+package com.skydan.customer;
+
+import com.skydan.exception.RequestValidationException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum CustomerExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    CustomerExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String fileName() {
+        return "customers." + name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses {@code format=csv|ndjson}; newline delimited JSON when absent.
+     */
+    public static CustomerExportFormat parse(String format) {
+        if (format == null || format.isBlank()) {
+            return NDJSON;
+        }
+        for (CustomerExportFormat candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(format.trim())) {
+                return candidate;
+            }
+        }
+        throw new RequestValidationException("format must be one of csv, ndjson");
+    }
+}
@@ -0,0 +1,114 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole customer table to a stream, one row at a time.
+ * <p>
+ * PostgreSQL only honours the fetch size inside a transaction, where it reads through a server-side
+ * cursor instead of buffering the full result. Rows go straight from that cursor to a Jackson generator,
+ * so memory use does not depend on the number of customers. The read-only transaction also gives the
+ * export one consistent snapshot.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerExportService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerViewRawMapper customerViewRawMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+    private final int fetchSize;
+
+    public CustomerExportService(JdbcTemplate jdbcTemplate,
+                                 CustomerViewRawMapper customerViewRawMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customer.export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.customerViewRawMapper = customerViewRawMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // the generators flush when their buffer fills, not after every row, and leave closing to the caller
+        this.ndjsonWriter = objectMapper.writerFor(CustomerView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // columns in record order rather than CsvMapper's default alphabetical order
+        CsvMapper csvMapper = CsvMapper.builder()
+                .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .build();
+        this.csvWriter = csvMapper.writerFor(CustomerView.class)
+                .with(csvMapper.schemaFor(CustomerView.class).withHeader())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportCustomers(CustomerExportFormat format, OutputStream out) throws IOException {
+        var sql = """
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                ORDER BY id
+                """;
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<CustomerView> rows = jdbcTemplate.queryForStream(
+                        connection -> {
+                            PreparedStatement statement = connection.prepareStatement(sql);
+                            statement.setFetchSize(fetchSize);
+                            return statement;
+                        },
+                        customerViewRawMapper)) {
+                    switch (format) {
+                        case NDJSON -> writeNdjson(rows.iterator(), out);
+                        case CSV -> writeCsv(rows.iterator(), out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Iterator<CustomerView> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+            // one object per line instead of the default space between root values
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                ndjsonWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<CustomerView> rows, OutputStream out) throws IOException {
+        try (SequenceWriter writer = csvWriter.writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+        }
+    }
+}
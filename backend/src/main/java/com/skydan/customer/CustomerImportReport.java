@@ -0,0 +1,11 @@
+package com.skydan.customer;
+
+import java.util.List;
+
+public record CustomerImportReport(
+        long created,
+        long duplicates,
+        long invalid,
+        List<CustomerImportResult> rows
+) {
+}
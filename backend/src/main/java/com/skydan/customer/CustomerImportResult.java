@@ -0,0 +1,9 @@
+package com.skydan.customer;
+
+public record CustomerImportResult(
+        int row,
+        String email,
+        CustomerImportStatus status,
+        String message
+) {
+}
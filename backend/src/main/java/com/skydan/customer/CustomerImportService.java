@@ -0,0 +1,177 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.skydan.security.PasswordHasher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.skydan.customer.CustomerImportStatus.CREATED;
+import static com.skydan.customer.CustomerImportStatus.DUPLICATE;
+import static com.skydan.customer.CustomerImportStatus.INVALID;
+
+@Service
+@Profile("!reactive")
+public class CustomerImportService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final CustomerDao customerDao;
+    private final PasswordHasher passwordHasher;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final CustomerOutbox customerOutbox;
+    private final CustomerChangeFeed customerChangeFeed;
+    private final TransactionOperations transactionOperations;
+    private final ObjectReader customerReader;
+
+    public CustomerImportService(@Qualifier("jdbc")
+                                 CustomerDao customerDao,
+                                 PasswordHasher passwordHasher,
+                                 CustomerDTOMapper customerDTOMapper,
+                                 CustomerOutbox customerOutbox,
+                                 CustomerChangeFeed customerChangeFeed,
+                                 TransactionOperations transactionOperations,
+                                 ObjectMapper objectMapper) {
+        this.customerDao = customerDao;
+        this.passwordHasher = passwordHasher;
+        this.customerDTOMapper = customerDTOMapper;
+        this.customerOutbox = customerOutbox;
+        this.customerChangeFeed = customerChangeFeed;
+        this.transactionOperations = transactionOperations;
+        this.customerReader = objectMapper.readerFor(CustomerRegistrationRequest.class);
+    }
+
+    // accepts a JSON array or newline delimited JSON and reads it one customer at a time
+    public CustomerImportReport importCustomers(InputStream body) throws IOException {
+        List<CustomerImportResult> results = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        int row = 1;
+        try (MappingIterator<CustomerRegistrationRequest> requests = customerReader.readValues(body)) {
+            for (; requests.hasNextValue(); row++) {
+                CustomerRegistrationRequest request = requests.nextValue();
+
+                if (!isComplete(request)) {
+                    results.add(new CustomerImportResult(
+                            row, request.email(), INVALID, "missing required fields"));
+                } else if (!seenEmails.add(request.email())) {
+                    results.add(new CustomerImportResult(
+                            row, request.email(), DUPLICATE, "email duplicated in import"));
+                } else {
+                    chunk.add(new ImportRow(row, request));
+                    if (chunk.size() == CHUNK_SIZE) {
+                        importChunk(chunk, results);
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            results.add(new CustomerImportResult(
+                    row, null, INVALID, "malformed customer: " + e.getOriginalMessage()));
+        }
+        importChunk(chunk, results);
+
+        results.sort(Comparator.comparingInt(CustomerImportResult::row));
+        return new CustomerImportReport(
+                count(results, CREATED),
+                count(results, DUPLICATE),
+                count(results, INVALID),
+                results
+        );
+    }
+
+    private void importChunk(List<ImportRow> chunk, List<CustomerImportResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<String> takenEmails = new HashSet<>(customerDao.selectExistingEmails(
+                chunk.stream()
+                        .map(importRow -> importRow.request().email())
+                        .toList()
+        ));
+
+        List<ImportRow> newRows = new ArrayList<>(chunk.size());
+        for (ImportRow importRow : chunk) {
+            if (takenEmails.contains(importRow.request().email())) {
+                results.add(new CustomerImportResult(
+                        importRow.row(), importRow.request().email(), DUPLICATE, "email already taken"));
+            } else {
+                newRows.add(importRow);
+            }
+        }
+        if (newRows.isEmpty()) {
+            return;
+        }
+
+        List<String> passwords = passwordHasher.encodeAll(
+                newRows.stream()
+                        .map(importRow -> importRow.request().password())
+                        .toList()
+        );
+        List<Customer> customers = new ArrayList<>(newRows.size());
+        for (int i = 0; i < newRows.size(); i++) {
+            CustomerRegistrationRequest request = newRows.get(i).request();
+            customers.add(new Customer(
+                    request.name(),
+                    request.email(),
+                    passwords.get(i),
+                    request.age(),
+                    request.gender()
+            ));
+        }
+
+        // the outbox rows commit with the customers they record, like a single registration
+        List<CustomerDTO> created = new ArrayList<>(customers.size());
+        int[] inserted = transactionOperations.execute(status -> {
+            // a zero update count means the email was inserted concurrently after the lookup above
+            int[] counts = customerDao.insertCustomers(customers);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    created.add(customerDTOMapper.apply(customers.get(i)));
+                }
+            }
+            customerOutbox.appendAll(CustomerChangeEvent.Type.CREATED, created);
+            return counts;
+        });
+        for (int i = 0; i < newRows.size(); i++) {
+            ImportRow importRow = newRows.get(i);
+            results.add(inserted[i] == 0
+                    ? new CustomerImportResult(
+                            importRow.row(), importRow.request().email(), DUPLICATE, "email already taken")
+                    : new CustomerImportResult(
+                            importRow.row(), importRow.request().email(), CREATED, null));
+        }
+        created.forEach(customer -> customerChangeFeed.publish(CustomerChangeEvent.Type.CREATED, customer.id(), customer));
+    }
+
+    private static boolean isComplete(CustomerRegistrationRequest request) {
+        return request.name() != null
+                && request.email() != null && !request.email().isBlank()
+                && request.password() != null
+                && request.age() != null
+                && request.gender() != null;
+    }
+
+    private static long count(List<CustomerImportResult> results, CustomerImportStatus status) {
+        return results.stream()
+                .filter(result -> result.status() == status)
+                .count();
+    }
+
+    private record ImportRow(int row, CustomerRegistrationRequest request) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.skydan.customer;
+
+public enum CustomerImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID
+}
@@ -1,25 +1,34 @@
 package com.skydan.customer;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Repository("jdbc")
+@Profile("!reactive")
 public class CustomerJDBCDataAccessService implements CustomerDao{
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRawMapper customerRawMapper;
+    private final CustomerViewRawMapper customerViewRawMapper;
 
-    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRawMapper customerRawMapper) {
+    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate,
+                                         CustomerRawMapper customerRawMapper,
+                                         CustomerViewRawMapper customerViewRawMapper) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRawMapper = customerRawMapper;
+        this.customerViewRawMapper = customerViewRawMapper;
     }
 
     @Override
     public List<Customer> selectAllCustomers() {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM customer
                 """;
 
@@ -27,9 +36,91 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.query(sql, customerViewRawMapper, afterId, limit);
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        // lower(?) folds into a constant when planned, so the lower(...) expression indexes apply
+        if(search.name() != null) {
+            conditions.add("lower(name) LIKE lower(?)");
+            args.add(search.nameLikePattern());
+        }
+        if(search.emailPrefix() != null) {
+            conditions.add("lower(email) LIKE lower(?)");
+            args.add(search.emailPrefixLikePattern());
+        }
+        if(search.ageMin() != null) {
+            conditions.add("age >= ?");
+            args.add(search.ageMin());
+        }
+        if(search.ageMax() != null) {
+            conditions.add("age <= ?");
+            args.add(search.ageMax());
+        }
+        if(search.gender() != null) {
+            conditions.add("gender = ?");
+            args.add(search.gender());
+        }
+
+        CustomerSort sort = search.sort();
+        boolean byId = sort.field() == CustomerSort.Field.ID;
+        String direction = sort.descending() ? "DESC" : "ASC";
+        String comparison = sort.descending() ? "<" : ">";
+        if(search.afterId() != null) {
+            if(byId) {
+                conditions.add("id " + comparison + " ?");
+            } else {
+                // a row comparison follows the (column, id) index order, so the scan starts right at the cursor
+                conditions.add("(%s, id) %s (?, ?)".formatted(sort.field().column(), comparison));
+                args.add(search.afterValue());
+            }
+            args.add(search.afterId());
+        }
+
+        var sql = new StringBuilder("SELECT id, name, email, age, gender, version FROM customer");
+        if(!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ");
+        if(!byId) {
+            sql.append(sort.field().column()).append(' ').append(direction).append(", ");
+        }
+        sql.append("id ").append(direction).append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), customerViewRawMapper, args.toArray());
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        var sql = """
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                WHERE id = ?
+                """;
+
+        return jdbcTemplate.query(sql, customerViewRawMapper, customerId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version
                 FROM customer
                 WHERE id = ?
                 """;
@@ -40,20 +131,70 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public void insertCustomer(Customer customer) {
+    public boolean insertCustomer(Customer customer) {
         var sql = """
                 INSERT INTO customer(name, email, password, age, gender)
                 VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, version
                 """;
-        int result = jdbcTemplate.update(
+        // like a JPA persist, a successful insert leaves the generated id and version on the argument
+        return jdbcTemplate.query(
                 sql,
+                rs -> {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    customer.setId(rs.getLong("id"));
+                    customer.setVersion(rs.getInt("version"));
+                    return true;
+                },
                 customer.getName(),
                 customer.getEmail(),
                 customer.getPassword(),
                 customer.getAge(),
                 customer.getGender());
+    }
+
+    @Override
+    public int[] insertCustomers(List<Customer> customers) {
+        // one statement for the whole list; the returned rows hand the generated keys back by list position. An email
+        // repeated within the list is only offered once, at its first position, so the key can't be credited to a later copy
+        var sql = """
+                WITH input AS (
+                    SELECT DISTINCT ON (email) name, email, password, age, gender, ordinal
+                    FROM unnest(?::text[], ?::text[], ?::text[], ?::int[], ?::text[])
+                        WITH ORDINALITY AS t(name, email, password, age, gender, ordinal)
+                    ORDER BY email, ordinal
+                ), inserted AS (
+                    INSERT INTO customer(name, email, password, age, gender)
+                    SELECT name, email, password, age, gender FROM input ORDER BY ordinal
+                    ON CONFLICT (email) DO NOTHING
+                    RETURNING id, email, version
+                )
+                SELECT input.ordinal, inserted.id, inserted.version
+                FROM inserted
+                JOIN input ON input.email = inserted.email
+                """;
+
+        jdbcTemplate.query(
+                sql,
+                (RowCallbackHandler) rs -> {
+                    Customer customer = customers.get(rs.getInt("ordinal") - 1);
+                    customer.setId(rs.getLong("id"));
+                    customer.setVersion(rs.getInt("version"));
+                },
+                customers.stream().map(Customer::getName).toArray(String[]::new),
+                customers.stream().map(Customer::getEmail).toArray(String[]::new),
+                customers.stream().map(Customer::getPassword).toArray(String[]::new),
+                customers.stream().map(Customer::getAge).toArray(Integer[]::new),
+                customers.stream().map(Customer::getGender).toArray(String[]::new));
 
-        System.out.println("jdbcTemplate.update = " + result);
+        int[] inserted = new int[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            inserted[i] = customers.get(i).getId() != null ? 1 : 0;
+        }
+        return inserted;
     }
 
     @Override
@@ -69,19 +210,32 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
+    public List<String> selectExistingEmails(List<String> emails) {
+        var sql = """
+               SELECT email
+               FROM customer
+               WHERE email = ANY (?)
+               """;
+
+        return jdbcTemplate.queryForList(sql, String.class, (Object) emails.toArray(String[]::new));
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
         var sql = """
-                DELETE 
+                DELETE
                 FROM customer
                 WHERE id = ?
+                RETURNING id, name, email, password, age, gender, version
                 """;
 
-        int result = jdbcTemplate.update(sql, customerId);
-        System.out.println("jdbcTemplate.update = " + result);
+        return jdbcTemplate.query(sql, customerRawMapper, customerId)
+                .stream()
+                .findFirst();
     }
 
     @Override
-    public boolean existsCustomerWithId(Integer customerId) {
+    public boolean existsCustomerWithId(Long customerId) {
         var sql = """
                SELECT count(id)
                FROM customer
@@ -93,38 +247,84 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public void updateCustomer(Customer update) {
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+
         if(update.getName() != null) {
-            String sql = "UPDATE customer SET name = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getName(), update.getId());
-            System.out.println("update customer name result = " + result);
+            columns.add("name");
+            values.add(update.getName());
         }
         if(update.getEmail() != null) {
-            String sql = "UPDATE customer SET email = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getEmail(), update.getId());
-            System.out.println("update customer email result = " + result);
+            columns.add("email");
+            values.add(update.getEmail());
         }
         if(update.getPassword() != null) {
-            String sql = "UPDATE customer SET password = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getPassword(), update.getId());
-            System.out.println("update customer password result = " + result);
+            columns.add("password");
+            values.add(update.getPassword());
         }
         if(update.getAge() != null) {
-            String sql = "UPDATE customer SET age = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getAge(), update.getId());
-            System.out.println("update customer age result = " + result);
+            columns.add("age");
+            values.add(update.getAge());
         }
         if(update.getGender() != null) {
-            String sql = "UPDATE customer SET gender = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getGender(), update.getId());
-            System.out.println("update customer gender result = " + result);
+            columns.add("gender");
+            values.add(update.getGender());
+        }
+
+        if(columns.isEmpty()) {
+            return selectCustomerById(update.getId()).map(UpdatedCustomer::unchanged);
+        }
+
+        List<Object> args = new ArrayList<>(values);
+        var sql = new StringBuilder()
+                .append("UPDATE customer SET ")
+                .append(String.join(", ", columns.stream().map(column -> column + " = ?").toList()))
+                .append(", version = version + 1 WHERE id = ?");
+        args.add(update.getId());
+        if(update.getVersion() != null) {
+            sql.append(" AND version = ?");
+            args.add(update.getVersion());
+        }
+        // a row whose given columns already hold these values is left alone, so its version and ETag stay
+        sql.append(" AND (")
+                .append(String.join(" OR ", columns.stream().map(column -> column + " IS DISTINCT FROM ?").toList()))
+                .append(")");
+        args.addAll(values);
+        // a sub-select in RETURNING reads the statement's snapshot, so it still sees the email from before the update
+        sql.append("""
+                 RETURNING id, name, email, password, age, gender, version,
+                 (SELECT previous.email FROM customer previous WHERE previous.id = customer.id) AS previous_email
+                """);
+
+        Optional<UpdatedCustomer> updated = jdbcTemplate.query(
+                        sql.toString(),
+                        (rs, rowNum) -> new UpdatedCustomer(
+                                customerRawMapper.mapRow(rs, rowNum),
+                                rs.getString("previous_email"),
+                                true
+                        ),
+                        args.toArray())
+                .stream()
+                .findFirst();
+        if(updated.isPresent()) {
+            return updated;
+        }
+
+        // only a miss costs a second query, telling a missing row from a stale version and from a no-op
+        Optional<Customer> current = selectCustomerById(update.getId());
+        if(current.isPresent() && update.getVersion() != null && !update.getVersion().equals(current.get().getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "customer with id [%s] was modified concurrently".formatted(update.getId())
+            );
         }
+        return current.map(UpdatedCustomer::unchanged);
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM customer
                 WHERE email = ?
                 """;
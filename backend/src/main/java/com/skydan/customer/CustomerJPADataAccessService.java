@@ -1,16 +1,41 @@
 package com.skydan.customer;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jpa")
+@Profile("!reactive")
 public class CustomerJPADataAccessService implements CustomerDao{
+    // V1 declares email UNIQUE inline, so PostgreSQL names it customer_email_key; the entity's name only applies to generated schemas
+    private static final Set<String> EMAIL_UNIQUE_CONSTRAINTS = Set.of("customer_email_key", "customer_email_unique");
+
     private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
 
-    public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+    public CustomerJPADataAccessService(CustomerRepository customerRepository,
+                                        EntityManager entityManager,
+                                        TransactionOperations transactionOperations,
+                                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int batchSize) {
         this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -19,13 +44,70 @@ public class CustomerJPADataAccessService implements CustomerDao{
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
+        return customerRepository.findByIdGreaterThan(
+                afterId,
+                PageRequest.of(0, limit, Sort.by("id"))
+        );
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        return customerRepository.search(search, limit);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        return customerRepository.findViewById(customerId);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
         return customerRepository.findById(customerId);
     }
 
     @Override
-    public void insertCustomer(Customer customer) {
-        customerRepository.save(customer);
+    public boolean insertCustomer(Customer customer) {
+        try {
+            customerRepository.save(customer);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && EMAIL_UNIQUE_CONSTRAINTS.contains(violation.getConstraintName())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] insertCustomers(List<Customer> customers) {
+        // one transaction for the whole list; every slice is flushed as a single JDBC batch and then detached,
+        // so the persistence context stays at batch-size entities however long the list is. Emails already stored,
+        // or claimed earlier in the list, are left out of the batch instead of failing it; an email registered by
+        // another transaction after the check still fails the flush, and with it the caller's transaction
+        int[] inserted = new int[customers.size()];
+        transactionOperations.executeWithoutResult(status -> {
+            Set<String> claimed = new HashSet<>();
+            for (int from = 0; from < customers.size(); from += batchSize) {
+                List<Customer> slice = customers.subList(from, Math.min(from + batchSize, customers.size()));
+                Set<String> taken = new HashSet<>(customerRepository.findEmailsIn(
+                        slice.stream().map(Customer::getEmail).toList()
+                ));
+                List<Customer> free = new ArrayList<>(slice.size());
+                for (int i = 0; i < slice.size(); i++) {
+                    Customer customer = slice.get(i);
+                    if (!taken.contains(customer.getEmail()) && claimed.add(customer.getEmail())) {
+                        free.add(customer);
+                        inserted[from + i] = 1;
+                    }
+                }
+                customerRepository.saveAll(free);
+                entityManager.flush();
+                entityManager.clear();
+            }
+        });
+        return inserted;
     }
 
     @Override
@@ -34,18 +116,60 @@ public class CustomerJPADataAccessService implements CustomerDao{
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
-        customerRepository.deleteById(customerId);
+    public List<String> selectExistingEmails(List<String> emails) {
+        return customerRepository.findEmailsIn(emails);
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        return customerRepository.deleteReturningById(customerId);
     }
 
     @Override
-    public boolean existsCustomerWithId(Integer customerId) {
+    public boolean existsCustomerWithId(Long customerId) {
         return customerRepository.existsCustomerById(customerId);
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        customerRepository.save(update);
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        // null fields are left alone, as in the SQL DAOs; dirty checking with @DynamicUpdate writes only changed columns
+        return transactionOperations.execute(status -> customerRepository.findById(update.getId())
+                .map(current -> {
+                    if (update.getVersion() != null && !update.getVersion().equals(current.getVersion())) {
+                        throw new OptimisticLockingFailureException(
+                                "customer with id [%s] was modified concurrently".formatted(update.getId())
+                        );
+                    }
+                    String previousEmail = current.getEmail();
+                    boolean changed = false;
+                    if (update.getName() != null && !update.getName().equals(current.getName())) {
+                        current.setName(update.getName());
+                        changed = true;
+                    }
+                    if (update.getEmail() != null && !update.getEmail().equals(current.getEmail())) {
+                        current.setEmail(update.getEmail());
+                        changed = true;
+                    }
+                    if (update.getPassword() != null && !update.getPassword().equals(current.getPassword())) {
+                        current.setPassword(update.getPassword());
+                        changed = true;
+                    }
+                    if (update.getAge() != null && !update.getAge().equals(current.getAge())) {
+                        current.setAge(update.getAge());
+                        changed = true;
+                    }
+                    if (update.getGender() != null && !update.getGender().equals(current.getGender())) {
+                        current.setGender(update.getGender());
+                        changed = true;
+                    }
+                    if (!changed) {
+                        // nothing dirty, so no UPDATE and no version bump
+                        return UpdatedCustomer.unchanged(current);
+                    }
+                    // flushed here so the bumped version is on the returned entity
+                    entityManager.flush();
+                    return new UpdatedCustomer(current, previousEmail, true);
+                }));
     }
 
     @Override
@@ -1,85 +1,258 @@
 package com.skydan.customer;
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * In-memory store with the same contract as the database-backed DAOs: an ordered
+ * primary index on id (for keyset paging), a unique index on email, optimistic
+ * versioning and partial updates. Rows are copied in and out so callers can never
+ * mutate indexed state behind the store's back.
+ */
 @Repository("fake")
 public class CustomerListDataAccessService implements CustomerDao {
     // db
-    private static final List<Customer> customers;
+    private final ConcurrentNavigableMap<Long, Customer> customers = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Long> emailIndex = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
 
-    static {
-        customers = new ArrayList<>();
-
-        Customer alex = new Customer(
-                1,
+    public CustomerListDataAccessService() {
+        insertCustomer(new Customer(
                 "Alex",
                 "alex@gmail.com",
                 "password",
                 21,
                 "MALE"
-        );
-        customers.add(alex);
-        Customer jamila = new Customer(
-                2,
+        ));
+        insertCustomer(new Customer(
                 "Jamila",
                 "jamila@gmail.com",
                 "password",
                 19,
                 "FEMALE"
-        );
-        customers.add(jamila);
+        ));
     }
 
     @Override
     public List<Customer> selectAllCustomers() {
-        return customers;
+        return customers.values().stream()
+                .map(Customer::copy)
+                .toList();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
+        return customers.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(CustomerView::of)
+                .toList();
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        Comparator<Customer> order = order(search.sort());
+        Customer after = search.afterId() == null ? null : position(search);
+        return customers.values().stream()
+                .filter(customer -> matches(search, customer))
+                .filter(customer -> after == null || order.compare(customer, after) > 0)
+                .sorted(order)
+                .limit(limit)
+                .map(CustomerView::of)
+                .toList();
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        return Optional.ofNullable(customers.get(customerId))
+                .map(CustomerView::of);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        return Optional.ofNullable(customers.get(customerId))
+                .map(Customer::copy);
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
-        return customers.stream()
-                .filter(c -> c.getId().equals(customerId))
-                .findFirst();
+    public boolean insertCustomer(Customer customer) {
+        long id = sequence.incrementAndGet();
+        // claiming the email first is the unique constraint: the row only becomes visible once it owns it
+        if (emailIndex.putIfAbsent(customer.getEmail(), id) != null) {
+            return false;
+        }
+        customer.setId(id);
+        customer.setVersion(0);
+        customers.put(id, customer.copy());
+        return true;
     }
 
     @Override
-    public void insertCustomer(Customer customer) {
-        customers.add(customer);
+    public int[] insertCustomers(List<Customer> newCustomers) {
+        int[] inserted = new int[newCustomers.size()];
+        for (int i = 0; i < newCustomers.size(); i++) {
+            inserted[i] = insertCustomer(newCustomers.get(i)) ? 1 : 0;
+        }
+        return inserted;
     }
 
     @Override
     public boolean existsCustomerWithEmail(String email) {
-        return customers.stream()
-                .anyMatch(customer -> customer.getEmail().equals(email));
+        return emailIndex.containsKey(email);
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
-        customers.stream()
-                .filter(customer -> customer.getId().equals(customerId))
-                .findFirst()
-                .ifPresent(customers::remove);
+    public List<String> selectExistingEmails(List<String> emails) {
+        return emails.stream()
+                .filter(emailIndex::containsKey)
+                .distinct()
+                .toList();
     }
 
     @Override
-    public boolean existsCustomerWithId(Integer customerId) {
-        return customers.stream()
-                .anyMatch(customer -> customer.getId().equals(customerId));
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        Customer deleted = customers.remove(customerId);
+        if (deleted == null) {
+            return Optional.empty();
+        }
+        emailIndex.remove(deleted.getEmail(), customerId);
+        return Optional.of(deleted.copy());
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        customers.add(update);
+    public boolean existsCustomerWithId(Long customerId) {
+        return customers.containsKey(customerId);
+    }
+
+    @Override
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        Long id = update.getId();
+        if (update.getName() == null && update.getEmail() == null && update.getPassword() == null
+                && update.getAge() == null && update.getGender() == null) {
+            return selectCustomerById(id).map(UpdatedCustomer::unchanged);
+        }
+
+        String newEmail = update.getEmail();
+        boolean claimedEmail = false;
+        if (newEmail != null) {
+            Long owner = emailIndex.putIfAbsent(newEmail, id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException(
+                        "email [%s] violates customer_email_key".formatted(newEmail)
+                );
+            }
+            claimedEmail = owner == null;
+        }
+
+        String[] previousEmail = new String[1];
+        boolean[] changed = new boolean[1];
+        Customer updated;
+        try {
+            updated = customers.computeIfPresent(id, (key, current) -> {
+                if (update.getVersion() != null && !update.getVersion().equals(current.getVersion())) {
+                    throw new OptimisticLockingFailureException(
+                            "customer with id [%s] was modified concurrently".formatted(id)
+                    );
+                }
+                previousEmail[0] = current.getEmail();
+                Customer merged = merge(current, update);
+                // like the SQL DAOs: an update that changes nothing keeps the row and its version
+                changed[0] = !merged.equals(current)
+                        || !Objects.equals(merged.getPassword(), current.getPassword());
+                return changed[0] ? bumped(merged) : current;
+            });
+        } catch (RuntimeException e) {
+            releaseEmail(claimedEmail, newEmail, id);
+            throw e;
+        }
+
+        if (updated == null) {
+            releaseEmail(claimedEmail, newEmail, id);
+            return Optional.empty();
+        }
+        if (previousEmail[0] != null && !previousEmail[0].equals(updated.getEmail())) {
+            emailIndex.remove(previousEmail[0], id);
+        }
+        return Optional.of(new UpdatedCustomer(updated.copy(), previousEmail[0], changed[0]));
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
-        return customers.stream()
-                .filter(c -> c.getUsername().equals(email))
-                .findFirst();
+        return Optional.ofNullable(emailIndex.get(email))
+                .map(customers::get)
+                .map(Customer::copy);
+    }
+
+    private void releaseEmail(boolean claimed, String email, Long id) {
+        if (claimed) {
+            emailIndex.remove(email, id);
+        }
+    }
+
+    private static boolean matches(CustomerSearch search, Customer customer) {
+        return (search.name() == null
+                        || customer.getName().toLowerCase(Locale.ROOT).contains(search.name().toLowerCase(Locale.ROOT)))
+                && (search.emailPrefix() == null
+                        || customer.getEmail().toLowerCase(Locale.ROOT).startsWith(search.emailPrefix().toLowerCase(Locale.ROOT)))
+                && (search.ageMin() == null || customer.getAge() >= search.ageMin())
+                && (search.ageMax() == null || customer.getAge() <= search.ageMax())
+                && (search.gender() == null || customer.getGender().equals(search.gender()));
+    }
+
+    // a stand-in row holding just the keyset values, compared with the same order as real rows
+    private static Customer position(CustomerSearch search) {
+        Customer position = new Customer();
+        position.setId(search.afterId());
+        switch (search.sort().field()) {
+            case NAME -> position.setName((String) search.afterValue());
+            case AGE -> position.setAge((Integer) search.afterValue());
+            case ID -> { }
+        }
+        return position;
+    }
+
+    private static Comparator<Customer> order(CustomerSort sort) {
+        Comparator<Customer> order = switch (sort.field()) {
+            case ID -> Comparator.comparing(Customer::getId);
+            case NAME -> Comparator.comparing(Customer::getName).thenComparing(Customer::getId);
+            case AGE -> Comparator.comparing(Customer::getAge).thenComparing(Customer::getId);
+        };
+        return sort.descending() ? order.reversed() : order;
+    }
+
+    private static Customer merge(Customer current, Customer update) {
+        Customer merged = current.copy();
+        if (update.getName() != null) {
+            merged.setName(update.getName());
+        }
+        if (update.getEmail() != null) {
+            merged.setEmail(update.getEmail());
+        }
+        if (update.getPassword() != null) {
+            merged.setPassword(update.getPassword());
+        }
+        if (update.getAge() != null) {
+            merged.setAge(update.getAge());
+        }
+        if (update.getGender() != null) {
+            merged.setGender(update.getGender());
+        }
+        return merged;
+    }
+
+    private static Customer bumped(Customer merged) {
+        merged.setVersion(merged.getVersion() + 1);
+        return merged;
     }
 }
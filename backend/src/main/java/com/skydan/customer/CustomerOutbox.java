@@ -0,0 +1,83 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Records customer changes in the {@code customer_outbox} table for the {@link CustomerOutboxRelay}.
+ * Must be called inside the transaction that makes the change, so the row exists if and only if the change commits.
+ * <p>
+ * Without a {@link CustomerOutboxSink} bean nothing would ever relay or delete the rows, so none are written; changes
+ * made before a sink is configured are not delivered. The reactive profile has no outbox at all and its mutations are
+ * not recorded.
+ */
+@Component
+@Profile("!reactive")
+public class CustomerOutbox {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public CustomerOutbox(JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          Optional<CustomerOutboxSink> customerOutboxSink) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = customerOutboxSink.isPresent();
+    }
+
+    public void append(CustomerChangeEvent.Type type, Long customerId, CustomerDTO customer) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("customer outbox writes need the transaction of the change they record");
+        }
+        if (!enabled) {
+            return;
+        }
+        var sql = """
+                INSERT INTO customer_outbox(event_type, customer_id, payload)
+                VALUES (?, ?, ?::jsonb)
+                """;
+        jdbcTemplate.update(sql, type.name(), customerId, toJson(customer));
+    }
+
+    /**
+     * {@link #append} for many customers in one statement, e.g. the rows of an import chunk.
+     */
+    public void appendAll(CustomerChangeEvent.Type type, List<CustomerDTO> customers) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("customer outbox writes need the transaction of the change they record");
+        }
+        if (!enabled || customers.isEmpty()) {
+            return;
+        }
+        var sql = """
+                INSERT INTO customer_outbox(event_type, customer_id, payload)
+                SELECT ?, customer_id, payload::jsonb
+                FROM unnest(?::bigint[], ?::text[]) AS change(customer_id, payload)
+                """;
+        jdbcTemplate.update(
+                sql,
+                type.name(),
+                customers.stream().map(CustomerDTO::id).toArray(Long[]::new),
+                customers.stream().map(this::toJson).toArray(String[]::new));
+    }
+
+    private String toJson(CustomerDTO customer) {
+        if (customer == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(customer);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize customer " + customer.id(), e);
+        }
+    }
+}
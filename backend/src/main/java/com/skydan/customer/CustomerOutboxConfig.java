@@ -0,0 +1,28 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.nio.file.Path;
+
+@Configuration
+@Profile("!reactive")
+public class CustomerOutboxConfig {
+
+    // neither sink is durable past this host; production registers its own CustomerOutboxSink bean
+    @Bean
+    @Profile("outbox-file")
+    public CustomerOutboxSink fileCustomerOutboxSink(@Value("${customer.outbox.file}") Path file,
+                                                     ObjectMapper objectMapper) {
+        return new FileCustomerOutboxSink(file, objectMapper);
+    }
+
+    @Bean
+    @Profile("outbox-memory")
+    public CustomerOutboxSink inMemoryCustomerOutboxSink() {
+        return new InMemoryCustomerOutboxSink();
+    }
+}
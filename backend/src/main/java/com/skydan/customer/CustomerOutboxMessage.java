@@ -0,0 +1,21 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A customer change as it was written to the outbox. {@code id} grows with every write, so consumers can
+ * use it to order and de-duplicate: delivery is at least once. {@code customer} is the JSON of the row
+ * after the change and is absent for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CustomerOutboxMessage(
+        long id,
+        CustomerChangeEvent.Type type,
+        Long customerId,
+        @JsonRawValue String customer,
+        Instant createdAt
+) {
+}
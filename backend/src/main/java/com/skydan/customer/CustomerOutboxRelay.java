@@ -0,0 +1,180 @@
+package com.skydan.customer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves {@code customer_outbox} rows to the {@link CustomerOutboxSink} and deletes them once delivered.
+ * <p>
+ * Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, published and deleted in one transaction, so
+ * every instance can run a relay without two of them delivering the same row. A failed publish or commit
+ * leaves the rows in place for the next poll, which makes delivery at least once. Consecutive failures back
+ * off exponentially up to {@code customer.outbox.max-backoff}.
+ * <p>
+ * Without a {@link CustomerOutboxSink} bean the relay does not poll, and {@link CustomerOutbox} writes no rows.
+ */
+@Component
+@Profile("!reactive")
+public class CustomerOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerOutboxRelay.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final CustomerOutboxSink customerOutboxSink;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration maxBackoff;
+    private final MeterRegistry meterRegistry;
+    private final Counter relayed;
+    private final Timer lag;
+    private final ScheduledExecutorService poller;
+    private int consecutiveFailures;
+
+    public CustomerOutboxRelay(JdbcTemplate jdbcTemplate,
+                               TransactionOperations transactionOperations,
+                               Optional<CustomerOutboxSink> customerOutboxSink,
+                               @Value("${customer.outbox.batch-size}") int batchSize,
+                               @Value("${customer.outbox.poll-interval}") Duration pollInterval,
+                               @Value("${customer.outbox.max-backoff}") Duration maxBackoff,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.customerOutboxSink = customerOutboxSink.orElse(null);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxBackoff = maxBackoff;
+        this.meterRegistry = meterRegistry;
+        this.relayed = Counter.builder("customer.outbox.relayed")
+                .description("Outbox messages delivered to the sink")
+                .register(meterRegistry);
+        this.lag = Timer.builder("customer.outbox.lag")
+                .description("Time from the outbox write to delivery to the sink")
+                .register(meterRegistry);
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.customerOutboxSink == null) {
+            log.info("No CustomerOutboxSink is configured, customer changes are not recorded in customer_outbox");
+        } else {
+            this.poller.schedule(this::pollAndReschedule, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private void pollAndReschedule() {
+        poll();
+        if (!poller.isShutdown()) {
+            poller.schedule(this::pollAndReschedule, nextDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void poll() {
+        try {
+            // a full batch means there is probably more waiting, so keep draining instead of sleeping
+            while (relayBatch() == batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            consecutiveFailures = 0;
+        } catch (RuntimeException e) {
+            consecutiveFailures++;
+            Counter.builder("customer.outbox.relay.failures")
+                    .description("Relay polls that failed and left their batch for a retry")
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Relaying customer_outbox failed {} time(s) in a row, retrying in {}",
+                    consecutiveFailures, nextDelay(), e);
+        }
+    }
+
+    /**
+     * @return the poll interval, doubled for every consecutive failure up to the maximum backoff
+     */
+    Duration nextDelay() {
+        if (consecutiveFailures == 0) {
+            return pollInterval;
+        }
+        Duration backoff = pollInterval.multipliedBy(1L << Math.min(consecutiveFailures - 1, 20));
+        return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+    }
+
+    /**
+     * @return the number of messages delivered
+     */
+    int relayBatch() {
+        long started = System.nanoTime();
+        List<PendingMessage> delivered = transactionOperations.execute(status -> {
+            List<PendingMessage> batch = claimBatch();
+            if (batch.isEmpty()) {
+                return batch;
+            }
+            customerOutboxSink.publish(batch.stream()
+                    .map(PendingMessage::message)
+                    .toList());
+            jdbcTemplate.update(
+                    "DELETE FROM customer_outbox WHERE id = ANY (?)",
+                    (Object) batch.stream().map(pending -> pending.message().id()).toArray(Long[]::new));
+            return batch;
+        });
+        if (delivered == null || delivered.isEmpty()) {
+            return 0;
+        }
+
+        // the age comes from the database clock, so app and database clocks need not agree
+        long deliveryNanos = System.nanoTime() - started;
+        for (PendingMessage pending : delivered) {
+            lag.record(pending.ageMicros() * 1_000 + deliveryNanos, TimeUnit.NANOSECONDS);
+        }
+        relayed.increment(delivered.size());
+        return delivered.size();
+    }
+
+    private List<PendingMessage> claimBatch() {
+        var sql = """
+                SELECT id, event_type, customer_id, payload::text AS payload, created_at,
+                       (EXTRACT(EPOCH FROM clock_timestamp() - created_at) * 1000000)::bigint AS age_micros
+                FROM customer_outbox
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new PendingMessage(
+                new CustomerOutboxMessage(
+                        rs.getLong("id"),
+                        CustomerChangeEvent.Type.valueOf(rs.getString("event_type")),
+                        rs.getLong("customer_id"),
+                        rs.getString("payload"),
+                        rs.getTimestamp("created_at").toInstant()),
+                rs.getLong("age_micros")
+        ), batchSize);
+    }
+
+    private record PendingMessage(CustomerOutboxMessage message, long ageMicros) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.skydan.customer;
+
+import java.util.List;
+
+/**
+ * Destination of the {@link CustomerOutboxRelay}. A batch counts as delivered once {@link #publish} returns;
+ * throwing leaves the whole batch in the outbox to be retried on the next poll.
+ */
+public interface CustomerOutboxSink {
+
+    void publish(List<CustomerOutboxMessage> messages);
+}
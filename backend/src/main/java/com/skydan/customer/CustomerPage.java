@@ -0,0 +1,13 @@
+package com.skydan.customer;
+
+import java.util.List;
+
+public record CustomerPage(
+        List<CustomerDTO> customers,
+        String nextCursor,
+        String eTag
+) {
+    public CustomerPage(List<CustomerDTO> customers, String nextCursor) {
+        this(customers, nextCursor, null);
+    }
+}
@@ -0,0 +1,230 @@
+package com.skydan.customer;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository("r2dbc")
+@Profile("reactive")
+public class CustomerR2DBCDataAccessService implements ReactiveCustomerDao {
+
+    // rows pulled per round trip while streaming, so a large table is never buffered in full
+    static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public CustomerR2DBCDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<CustomerView> selectCustomers(Long afterId, int limit) {
+        var sql = """
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                WHERE id > :afterId
+                ORDER BY id
+                LIMIT :limit
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(CustomerR2DBCDataAccessService::mapView)
+                .all();
+    }
+
+    @Override
+    public Flux<CustomerView> streamCustomers(Long afterId) {
+        var sql = """
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                WHERE id > :afterId
+                ORDER BY id
+                """;
+
+        return databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .bind("afterId", afterId)
+                .map(CustomerR2DBCDataAccessService::mapView)
+                .all();
+    }
+
+    @Override
+    public Mono<CustomerView> selectCustomerViewById(Long customerId) {
+        var sql = """
+                SELECT id, name, email, age, gender, version
+                FROM customer
+                WHERE id = :id
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("id", customerId)
+                .map(CustomerR2DBCDataAccessService::mapView)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> selectCustomerById(Long customerId) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE id = :id
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("id", customerId)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> insertCustomer(Customer customer) {
+        var sql = """
+                INSERT INTO customer(name, email, password, age, gender)
+                VALUES (:name, :email, :password, :age, :gender)
+                ON CONFLICT (email) DO NOTHING
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("name", customer.getName())
+                .bind("email", customer.getEmail())
+                .bind("password", customer.getPassword())
+                .bind("age", customer.getAge())
+                .bind("gender", customer.getGender())
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1);
+    }
+
+    @Override
+    public Mono<Boolean> existsCustomerWithEmail(String email) {
+        var sql = """
+                SELECT EXISTS (SELECT 1 FROM customer WHERE email = :email)
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> deleteCustomerById(Long customerId) {
+        var sql = """
+                DELETE
+                FROM customer
+                WHERE id = :id
+                RETURNING id, name, email, password, age, gender, version
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("id", customerId)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> updateCustomer(Customer update) {
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> args = new LinkedHashMap<>();
+
+        if(update.getName() != null) {
+            assignments.add("name = :name");
+            args.put("name", update.getName());
+        }
+        if(update.getEmail() != null) {
+            assignments.add("email = :email");
+            args.put("email", update.getEmail());
+        }
+        if(update.getPassword() != null) {
+            assignments.add("password = :password");
+            args.put("password", update.getPassword());
+        }
+        if(update.getAge() != null) {
+            assignments.add("age = :age");
+            args.put("age", update.getAge());
+        }
+        if(update.getGender() != null) {
+            assignments.add("gender = :gender");
+            args.put("gender", update.getGender());
+        }
+
+        if(assignments.isEmpty()) {
+            return selectCustomerById(update.getId());
+        }
+
+        var sql = new StringBuilder()
+                .append("UPDATE customer SET ")
+                .append(String.join(", ", assignments))
+                .append(", version = version + 1 WHERE id = :id");
+        args.put("id", update.getId());
+        if(update.getVersion() != null) {
+            sql.append(" AND version = :version");
+            args.put("version", update.getVersion());
+        }
+        sql.append(" RETURNING id, name, email, password, age, gender, version");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> arg : args.entrySet()) {
+            spec = spec.bind(arg.getKey(), arg.getValue());
+        }
+
+        Mono<Customer> updated = spec.map(CustomerR2DBCDataAccessService::mapRow).one();
+        if(update.getVersion() == null) {
+            return updated;
+        }
+        return updated.switchIfEmpty(selectCustomerById(update.getId())
+                .flatMap(current -> Mono.error(new OptimisticLockingFailureException(
+                        "customer with id [%s] was modified concurrently".formatted(update.getId())
+                ))));
+    }
+
+    @Override
+    public Mono<Customer> selectUserByEmail(String email) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM customer
+                WHERE email = :email
+                """;
+
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(CustomerR2DBCDataAccessService::mapRow)
+                .one();
+    }
+
+    static CustomerView mapView(Row row, RowMetadata metadata) {
+        return new CustomerView(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("age", Integer.class),
+                row.get("gender", String.class),
+                row.get("version", Integer.class)
+        );
+    }
+
+    static Customer mapRow(Row row, RowMetadata metadata) {
+        Customer customer = new Customer(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("password", String.class),
+                row.get("age", Integer.class),
+                row.get("gender", String.class)
+        );
+        customer.setVersion(row.get("version", Integer.class));
+        return customer;
+    }
+}
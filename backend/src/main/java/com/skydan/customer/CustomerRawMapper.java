@@ -10,13 +10,15 @@ import java.sql.SQLException;
 public class CustomerRawMapper implements RowMapper<Customer> {
     @Override
     public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Customer(
-                rs.getInt("id"),
+        Customer customer = new Customer(
+                rs.getLong("id"),
                 rs.getString("name"),
                 rs.getString("email"),
                 rs.getString( "password"),
                 rs.getInt("age"),
                 rs.getString("gender")
         );
+        customer.setVersion(rs.getInt("version"));
+        return customer;
     }
 }
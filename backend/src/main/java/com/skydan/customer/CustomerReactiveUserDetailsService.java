@@ -0,0 +1,37 @@
+package com.skydan.customer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class CustomerReactiveUserDetailsService
+        implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+    private final ReactiveCustomerDao customerDao;
+
+    public CustomerReactiveUserDetailsService(ReactiveCustomerDao customerDao) {
+        this.customerDao = customerDao;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return customerDao.selectUserByEmail(username)
+                .cast(UserDetails.class);
+    }
+
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        customer.setPassword(newPassword);
+        return customerDao.updateCustomer(customer)
+                // the customer changed since it was loaded; the hash is upgraded on a later login
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.empty())
+                .thenReturn(customer);
+    }
+}
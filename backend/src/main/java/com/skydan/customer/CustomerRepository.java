@@ -1,11 +1,35 @@
 package com.skydan.customer;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerSearchRepository {
     boolean existsCustomerByEmail(String email);
-    boolean existsCustomerById(Integer customerId);
+    boolean existsCustomerById(Long customerId);
     Optional<Customer> findCustomerByEmail(String email);
+
+    // DTO projections: only the view columns are selected and nothing enters the persistence context
+    @Transactional(readOnly = true)
+    List<CustomerView> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    Optional<CustomerView> findViewById(Long id);
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") List<String> emails);
+
+    // one statement that also hands back the deleted row; not read-only, unlike the inherited query methods
+    @Transactional
+    @Query(value = """
+            DELETE FROM customer
+            WHERE id = :id
+            RETURNING id, name, email, password, age, gender, version
+            """, nativeQuery = true)
+    Optional<Customer> deleteReturningById(@Param("id") Long id);
 }
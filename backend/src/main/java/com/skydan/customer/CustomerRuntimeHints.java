@@ -0,0 +1,30 @@
+package com.skydan.customer;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native-image hints for the customer model. Hibernate reads and writes {@link Customer} fields reflectively and
+ * builds {@link CustomerView} projections through its constructor. Controller signatures already cover the
+ * request and response bodies; these types are written as JSON outside of them, by the change feed, the outbox,
+ * exports and the Redis cache.
+ */
+public class CustomerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(Customer.class,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS)
+                .registerType(CustomerView.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                CustomerChangeEvent.class,
+                CustomerOutboxMessage.class,
+                CustomerView.class,
+                CustomerRegistrationRequest.class);
+    }
+}
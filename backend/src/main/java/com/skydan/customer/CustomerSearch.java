@@ -0,0 +1,65 @@
+package com.skydan.customer;
+
+/**
+ * Filters, order and keyset position of a customer search. {@code name} matches anywhere in the name and
+ * {@code emailPrefix} the start of the email, both case-insensitively; the age bounds are inclusive and
+ * {@code null} or blank filters are ignored.
+ * <p>
+ * {@code afterId} and {@code afterValue} are the id and sort value of the last row of the previous page,
+ * both {@code null} on the first page. For the id order only {@code afterId} is used.
+ */
+public record CustomerSearch(
+        String name,
+        String emailPrefix,
+        Integer ageMin,
+        Integer ageMax,
+        String gender,
+        CustomerSort sort,
+        Long afterId,
+        Object afterValue
+) {
+    public static final CustomerSearch ALL = new CustomerSearch(null, null, null, null, null, null);
+
+    public CustomerSearch {
+        name = blankToNull(name);
+        emailPrefix = blankToNull(emailPrefix);
+        gender = blankToNull(gender);
+        sort = sort == null ? CustomerSort.DEFAULT : sort;
+    }
+
+    public CustomerSearch(String name, String emailPrefix, Integer ageMin, Integer ageMax, String gender,
+                          CustomerSort sort) {
+        this(name, emailPrefix, ageMin, ageMax, gender, sort, null, null);
+    }
+
+    public CustomerSearch after(Long afterId, Object afterValue) {
+        return new CustomerSearch(name, emailPrefix, ageMin, ageMax, gender, sort, afterId, afterValue);
+    }
+
+    /**
+     * True when this is the plain id-ordered listing, which {@link CustomerDao#selectCustomers} serves.
+     */
+    public boolean isUnfiltered() {
+        return name == null && emailPrefix == null && ageMin == null && ageMax == null && gender == null
+                && sort.equals(CustomerSort.DEFAULT);
+    }
+
+    // LIKE patterns with the caller's own wildcards escaped, so "_" and "%" only ever match themselves
+    String nameLikePattern() {
+        return "%" + escapeLike(name) + "%";
+    }
+
+    String emailPrefixLikePattern() {
+        return escapeLike(emailPrefix) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.skydan.customer;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Spring Data fragment of {@link CustomerRepository} for the dynamic search query.
+ */
+public interface CustomerSearchRepository {
+
+    @Transactional(readOnly = true)
+    List<CustomerView> search(CustomerSearch search, int limit);
+}
@@ -0,0 +1,96 @@
+package com.skydan.customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the same query as {@link CustomerJDBCDataAccessService#searchCustomers} with the Criteria API.
+ * The keyset is spelled out as {@code value > v OR (value = v AND id > i)}, which PostgreSQL still
+ * answers from the {@code (column, id)} index.
+ */
+class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    CustomerSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<CustomerView> search(CustomerSearch search, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerView> query = cb.createQuery(CustomerView.class);
+        Root<Customer> customer = query.from(Customer.class);
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (search.name() != null) {
+            predicates.add(cb.like(
+                    cb.lower(customer.get("name")), cb.lower(cb.literal(search.nameLikePattern())), LIKE_ESCAPE));
+        }
+        if (search.emailPrefix() != null) {
+            predicates.add(cb.like(
+                    cb.lower(customer.get("email")), cb.lower(cb.literal(search.emailPrefixLikePattern())), LIKE_ESCAPE));
+        }
+        if (search.ageMin() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(customer.get("age"), search.ageMin()));
+        }
+        if (search.ageMax() != null) {
+            predicates.add(cb.lessThanOrEqualTo(customer.get("age"), search.ageMax()));
+        }
+        if (search.gender() != null) {
+            predicates.add(cb.equal(customer.get("gender"), search.gender()));
+        }
+
+        CustomerSort sort = search.sort();
+        boolean descending = sort.descending();
+        Path<Long> id = customer.get("id");
+        List<Order> orders = new ArrayList<>();
+        if (sort.field() == CustomerSort.Field.ID) {
+            if (search.afterId() != null) {
+                predicates.add(beyond(cb, id, search.afterId(), descending));
+            }
+        } else {
+            Path<Comparable<Object>> value = customer.get(sort.field().column());
+            if (search.afterId() != null) {
+                @SuppressWarnings("unchecked")
+                Comparable<Object> afterValue = (Comparable<Object>) search.afterValue();
+                predicates.add(cb.or(
+                        beyond(cb, value, afterValue, descending),
+                        cb.and(cb.equal(value, afterValue), beyond(cb, id, search.afterId(), descending))));
+            }
+            orders.add(descending ? cb.desc(value) : cb.asc(value));
+        }
+        orders.add(descending ? cb.desc(id) : cb.asc(id));
+
+        query.select(cb.construct(CustomerView.class,
+                        id,
+                        customer.get("name"),
+                        customer.get("email"),
+                        customer.get("age"),
+                        customer.get("gender"),
+                        customer.get("version")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orders);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb,
+                                                                      Expression<? extends T> expression,
+                                                                      T value,
+                                                                      boolean descending) {
+        return descending ? cb.lessThan(expression, value) : cb.greaterThan(expression, value);
+    }
+}
@@ -1,105 +1,202 @@
 package com.skydan.customer;
 
 import com.skydan.exception.DuplicateResourceException;
+import com.skydan.exception.PreconditionFailedException;
 import com.skydan.exception.RequestValidationException;
 import com.skydan.exception.ResourceNotFoundException;
+import com.skydan.jwt.TokenDenyList;
+import com.skydan.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Profile("!reactive")
 public class CustomerService {
 
     private final CustomerDao customerDao;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final CustomerDTOMapper customerDTOMapper;
+    private final TokenDenyList tokenDenyList;
+    private final CustomerUserDetailsService customerUserDetailsService;
+    private final CustomerChangeFeed customerChangeFeed;
+    private final CustomerOutbox customerOutbox;
+    private final TransactionOperations transactionOperations;
 
     public CustomerService(@Qualifier("jdbc")
                            CustomerDao customerDao,
                            CustomerDTOMapper customerDTOMapper,
-                           PasswordEncoder passwordEncoder) {
+                           PasswordHasher passwordHasher,
+                           TokenDenyList tokenDenyList,
+                           CustomerUserDetailsService customerUserDetailsService,
+                           CustomerChangeFeed customerChangeFeed,
+                           CustomerOutbox customerOutbox,
+                           TransactionOperations transactionOperations) {
         this.customerDao = customerDao;
         this.customerDTOMapper = customerDTOMapper;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.tokenDenyList = tokenDenyList;
+        this.customerUserDetailsService = customerUserDetailsService;
+        this.customerChangeFeed = customerChangeFeed;
+        this.customerOutbox = customerOutbox;
+        this.transactionOperations = transactionOperations;
     }
 
-    public List<CustomerDTO> getAllCustomers(){
-        return customerDao.selectAllCustomers()
-                .stream()
-                .map(customerDTOMapper)
+    public CustomerPage getCustomers(String cursor, Integer limit){
+        return getCustomers(CustomerSearch.ALL, cursor, limit);
+    }
+
+    public CustomerPage getCustomers(CustomerSearch search, String cursor, Integer limit){
+        int pageSize = CustomerCursor.pageSize(limit);
+        if(search.ageMin() != null && search.ageMax() != null && search.ageMin() > search.ageMax()) {
+            throw new RequestValidationException("ageMin must not be greater than ageMax");
+        }
+
+        // one extra row tells us whether another page exists without a count query
+        List<CustomerView> customers = search.isUnfiltered()
+                ? customerDao.selectCustomers(CustomerCursor.decode(cursor), pageSize + 1)
+                : customerDao.searchCustomers(CustomerCursor.resume(search, cursor), pageSize + 1);
+        boolean hasNext = customers.size() > pageSize;
+        if(hasNext) {
+            customers = customers.subList(0, pageSize);
+        }
+
+        List<CustomerDTO> page = customers.stream()
+                .map(customerDTOMapper::apply)
                 .collect(Collectors.toList());
+        String nextCursor = hasNext ? CustomerCursor.encode(search.sort(), customers.get(customers.size() - 1)) : null;
+
+        return new CustomerPage(page, nextCursor, CustomerETags.of(customers, nextCursor));
     }
 
-    public CustomerDTO getCustomer(Integer customerId){
-        return customerDao.selectCustomerById(customerId)
-                .map(customerDTOMapper)
+    public VersionedCustomer getCustomer(Long customerId){
+        return customerDao.selectCustomerViewById(customerId)
+                .map(customer -> new VersionedCustomer(customerDTOMapper.apply(customer), CustomerETags.of(customer)))
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "customer with id [%s] not found".formatted(customerId)
                 ));
     }
 
     public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
-        String email = customerRegistrationRequest.email();
-        if(customerDao.existsCustomerWithEmail(email)) {
-            throw new DuplicateResourceException("email already taken");
-        }
-
         Customer customer = new Customer(
                 customerRegistrationRequest.name(),
                 customerRegistrationRequest.email(),
-                passwordEncoder.encode(customerRegistrationRequest.password()),
+                passwordHasher.encode(customerRegistrationRequest.password()),
                 customerRegistrationRequest.age(),
                 customerRegistrationRequest.gender()
         );
 
-        customerDao.insertCustomer(customer);
+        // hashing stays outside the transaction so it does not hold a connection
+        CustomerDTO created = transactionOperations.execute(status -> {
+            // the unique email constraint decides, so two concurrent registrations cannot both succeed
+            if(!customerDao.insertCustomer(customer)) {
+                throw new DuplicateResourceException("email already taken");
+            }
+            CustomerDTO dto = customerDTOMapper.apply(customer);
+            customerOutbox.append(CustomerChangeEvent.Type.CREATED, customer.getId(), dto);
+            return dto;
+        });
+        customerChangeFeed.publish(CustomerChangeEvent.Type.CREATED, customer.getId(), created);
     }
 
-    public void deleteCustomerById(Integer customerId) {
-        if(!customerDao.existsCustomerWithId(customerId)){
-            throw new ResourceNotFoundException("customer with id [%s] not found".formatted(customerId));
-        }
-        customerDao.deleteCustomerById(customerId);
+    public void deleteCustomerById(Long customerId) {
+        Customer customer = transactionOperations.execute(status -> {
+            Customer deleted = customerDao.deleteCustomerById(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "customer with id [%s] not found".formatted(customerId)
+                    ));
+            customerOutbox.append(CustomerChangeEvent.Type.DELETED, customerId, null);
+            return deleted;
+        });
+        customerUserDetailsService.evictUser(customer.getEmail());
+        tokenDenyList.revokeSubject(customer.getEmail());
+        customerChangeFeed.publish(CustomerChangeEvent.Type.DELETED, customerId, null);
     }
 
-    public void updateCustomer(Integer customerId, CustomerUpdateRequest customerUpdateRequest) {
-        Customer customer = customerDao.selectCustomerById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "customer with id [%s] not found".formatted(customerId)
-                ));
-
-        boolean changes = false;
+    public VersionedCustomer updateCustomer(Long customerId, CustomerUpdateRequest customerUpdateRequest) {
+        return updateCustomer(customerId, customerUpdateRequest, null);
+    }
 
-        if(customerUpdateRequest.name() != null && !customerUpdateRequest.name().equals(customer.getName())){
-            customer.setName(customerUpdateRequest.name());
-            changes = true;
+    /**
+     * One conditional statement: the version from {@code If-Match} and a "some given field differs" test go into the
+     * update's {@code WHERE} clause, and only a miss looks the customer up again to tell 404 from 412 from a no-op.
+     * @param expectedVersion version the caller last saw (from {@code If-Match}), or {@code null} to update unconditionally
+     */
+    public VersionedCustomer updateCustomer(Long customerId,
+                                            CustomerUpdateRequest customerUpdateRequest,
+                                            Integer expectedVersion) {
+        Customer changes = changes(customerId, customerUpdateRequest, expectedVersion);
+        if(changes == null){
+            throw new RequestValidationException("no data changes found");
         }
 
-        if(customerUpdateRequest.email() != null && !customerUpdateRequest.email().equals(customer.getEmail())){
-            if(customerDao.existsCustomerWithEmail(customerUpdateRequest.email())){
-                throw new DuplicateResourceException("email already taken");
+        UpdatedCustomer updated;
+        try {
+            updated = transactionOperations.execute(status -> {
+                UpdatedCustomer row = customerDao.updateCustomer(changes)
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "customer with id [%s] not found".formatted(customerId)
+                        ));
+                if(!row.changed()){
+                    throw new RequestValidationException("no data changes found");
+                }
+                customerOutbox.append(CustomerChangeEvent.Type.UPDATED, customerId, customerDTOMapper.apply(row.customer()));
+                return row;
+            });
+        } catch (DuplicateKeyException e) {
+            // email is the only unique column besides the id
+            throw new DuplicateResourceException("email already taken");
+        } catch (OptimisticLockingFailureException e) {
+            // the customer exists, but not with the version from If-Match
+            if(expectedVersion != null){
+                throw preconditionFailed(customerId);
             }
-            customer.setEmail(customerUpdateRequest.email());
-            changes = true;
+            throw e;
         }
+        customerUserDetailsService.evictUser(updated.previousEmail());
 
-        if(customerUpdateRequest.age() != null && !customerUpdateRequest.age().equals(customer.getAge())){
-            customer.setAge(customerUpdateRequest.age());
-            changes = true;
+        if(updated.emailChanged()){
+            tokenDenyList.revokeSubject(updated.previousEmail());
         }
 
-        if(customerUpdateRequest.gender() != null && !customerUpdateRequest.gender().equals(customer.getGender())){
-            customer.setGender(customerUpdateRequest.gender());
-            changes = true;
-        }
+        VersionedCustomer versioned = toVersioned(updated.customer());
+        customerChangeFeed.publish(CustomerChangeEvent.Type.UPDATED, customerId, versioned.customer());
+        return versioned;
+    }
 
-        if(!changes){
-            throw new RequestValidationException("no data changes found");
-        }
+    private VersionedCustomer toVersioned(Customer customer) {
+        return new VersionedCustomer(customerDTOMapper.apply(customer), CustomerETags.of(customer));
+    }
 
-        customerDao.updateCustomer(customer);
+    private static PreconditionFailedException preconditionFailed(Long customerId) {
+        return new PreconditionFailedException(
+                "customer with id [%s] was modified since it was read".formatted(customerId)
+        );
+    }
+
+    /**
+     * Update for {@link CustomerDao#updateCustomer} straight from the request: the id, the expected version and the
+     * fields the request sets, so the statement writes just those columns. {@code null} when the request sets none;
+     * fields equal to the stored ones are caught by the statement itself.
+     */
+    private static Customer changes(Long customerId, CustomerUpdateRequest customerUpdateRequest, Integer expectedVersion) {
+        if(customerUpdateRequest.name() == null && customerUpdateRequest.email() == null
+                && customerUpdateRequest.age() == null && customerUpdateRequest.gender() == null){
+            return null;
+        }
+        Customer changes = new Customer();
+        changes.setId(customerId);
+        changes.setVersion(expectedVersion);
+        changes.setName(customerUpdateRequest.name());
+        changes.setEmail(customerUpdateRequest.email());
+        changes.setAge(customerUpdateRequest.age());
+        changes.setGender(customerUpdateRequest.gender());
+        return changes;
     }
 }
@@ -0,0 +1,61 @@
+package com.skydan.customer;
+
+import com.skydan.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Order of a customer search, parsed from {@code sort=<field>} or {@code sort=-<field>} for descending.
+ * Ties are always broken by id in the same direction, which keeps keyset paging stable.
+ */
+public record CustomerSort(Field field, boolean descending) {
+
+    public static final CustomerSort DEFAULT = new CustomerSort(Field.ID, false);
+
+    public enum Field {
+        ID("id", CustomerView::id, Long::valueOf),
+        NAME("name", CustomerView::name, value -> value),
+        AGE("age", CustomerView::age, Integer::valueOf);
+
+        private final String column;
+        private final Function<CustomerView, Object> value;
+        private final Function<String, Object> parser;
+
+        Field(String column, Function<CustomerView, Object> value, Function<String, Object> parser) {
+            this.column = column;
+            this.value = value;
+            this.parser = parser;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        Object valueOf(CustomerView customer) {
+            return value.apply(customer);
+        }
+
+        Object parse(String value) {
+            return parser.apply(value);
+        }
+    }
+
+    public static CustomerSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return DEFAULT;
+        }
+        boolean descending = sort.startsWith("-");
+        String column = (descending ? sort.substring(1) : sort).trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(Field.values())
+                .filter(field -> field.column.equals(column))
+                .findFirst()
+                .map(field -> new CustomerSort(field, descending))
+                .orElseThrow(() -> new RequestValidationException(
+                        "sort must be one of %s, optionally prefixed with -".formatted(
+                                Arrays.stream(Field.values()).map(Field::column).collect(Collectors.joining(", ")))
+                ));
+    }
+}
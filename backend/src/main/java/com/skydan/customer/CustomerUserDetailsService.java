@@ -1,24 +1,67 @@
 package com.skydan.customer;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-public class CustomerUserDetailsService implements UserDetailsService {
+@Profile("!reactive")
+public class CustomerUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final CustomerDao customerDao;
+    private final Cache<String, UserDetails> userDetailsCache;
 
-    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDao customerDao) {
+    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDao customerDao,
+                                      @Value("${customer.user-details-cache.maximum-size}") long maximumSize,
+                                      @Value("${customer.user-details-cache.ttl}") Duration ttl,
+                                      MeterRegistry meterRegistry) {
         this.customerDao = customerDao;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "customer.user-details");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return customerDao.selectUserByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException(
-                        "Username " + username + " not found"));
+        UserDetails userDetails = userDetailsCache.get(
+                username,
+                key -> customerDao.selectUserByEmail(key).orElse(null)
+        );
+        if (userDetails == null) {
+            throw new UsernameNotFoundException("Username " + username + " not found");
+        }
+        return userDetails;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        customer.setPassword(newPassword);
+        try {
+            customerDao.updateCustomer(customer);
+        } catch (OptimisticLockingFailureException e) {
+            // the customer changed since it was cached; the hash is upgraded on a later login
+        }
+        evictUser(customer.getUsername());
+        return customer;
+    }
+
+    public void evictUser(String username) {
+        userDetailsCache.invalidate(username);
     }
 }
@@ -0,0 +1,26 @@
+package com.skydan.customer;
+
+/**
+ * Read model of a customer: the columns a {@link CustomerDTO} and its entity tag need, and nothing else.
+ * Listings and lookups by id load this instead of the entity, so they never fetch the password hash
+ * and, on the JPA path, never fill a persistence context.
+ */
+public record CustomerView(
+        Long id,
+        String name,
+        String email,
+        Integer age,
+        String gender,
+        Integer version
+) {
+    static CustomerView of(Customer customer) {
+        return new CustomerView(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getAge(),
+                customer.getGender(),
+                customer.getVersion()
+        );
+    }
+}
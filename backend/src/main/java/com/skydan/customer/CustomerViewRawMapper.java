@@ -0,0 +1,22 @@
+package com.skydan.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class CustomerViewRawMapper implements RowMapper<CustomerView> {
+    @Override
+    public CustomerView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CustomerView(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getInt("age"),
+                rs.getString("gender"),
+                rs.getInt("version")
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every message as one JSON line. The batch is forced to disk before {@link #publish} returns,
+ * because the relay deletes the rows right after.
+ */
+public class FileCustomerOutboxSink implements CustomerOutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileCustomerOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<CustomerOutboxMessage> messages) {
+        StringBuilder lines = new StringBuilder();
+        for (CustomerOutboxMessage message : messages) {
+            try {
+                lines.append(objectMapper.writeValueAsString(message)).append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("could not serialize outbox message " + message.id(), e);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not append to " + file, e);
+        }
+    }
+}
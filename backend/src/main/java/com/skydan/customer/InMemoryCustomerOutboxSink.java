@@ -0,0 +1,21 @@
+package com.skydan.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects relayed messages in memory. Unbounded, so only meant for tests and local runs.
+ */
+public class InMemoryCustomerOutboxSink implements CustomerOutboxSink {
+
+    private final List<CustomerOutboxMessage> messages = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<CustomerOutboxMessage> messages) {
+        this.messages.addAll(messages);
+    }
+
+    public synchronized List<CustomerOutboxMessage> messages() {
+        return List.copyOf(messages);
+    }
+}
@@ -0,0 +1,141 @@
+package com.skydan.customer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decorates a {@link CustomerDao} with a {@code customer.dao} timer per method, tagged by implementation,
+ * method, outcome and exception, plus a {@code customer.dao.rows} summary for methods that return rows.
+ * Histogram and SLO buckets are configured under {@code management.metrics.distribution}.
+ */
+public class InstrumentedCustomerDao implements CustomerDao {
+
+    static final String TIMER_NAME = "customer.dao";
+    static final String ROWS_NAME = "customer.dao.rows";
+
+    private final CustomerDao delegate;
+    private final String implementation;
+    private final MeterRegistry meterRegistry;
+
+    public InstrumentedCustomerDao(CustomerDao delegate, String implementation, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.implementation = implementation;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CustomerDao getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return record("selectAllCustomers", delegate::selectAllCustomers, List::size);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
+        return record("selectCustomers", () -> delegate.selectCustomers(afterId, limit), List::size);
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        return record("searchCustomers", () -> delegate.searchCustomers(search, limit), List::size);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        return record("selectCustomerViewById", () -> delegate.selectCustomerViewById(customerId), InstrumentedCustomerDao::rows);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        return record("selectCustomerById", () -> delegate.selectCustomerById(customerId), InstrumentedCustomerDao::rows);
+    }
+
+    @Override
+    public boolean insertCustomer(Customer customer) {
+        return record("insertCustomer", () -> delegate.insertCustomer(customer), inserted -> inserted ? 1 : 0);
+    }
+
+    @Override
+    public int[] insertCustomers(List<Customer> customers) {
+        return record("insertCustomers", () -> delegate.insertCustomers(customers), InstrumentedCustomerDao::rows);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return record("existsCustomerWithEmail", () -> delegate.existsCustomerWithEmail(email), null);
+    }
+
+    @Override
+    public List<String> selectExistingEmails(List<String> emails) {
+        return record("selectExistingEmails", () -> delegate.selectExistingEmails(emails), List::size);
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        return record("deleteCustomerById", () -> delegate.deleteCustomerById(customerId), InstrumentedCustomerDao::rows);
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Long customerId) {
+        return record("existsCustomerWithId", () -> delegate.existsCustomerWithId(customerId), null);
+    }
+
+    @Override
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        return record("updateCustomer", () -> delegate.updateCustomer(update), InstrumentedCustomerDao::rows);
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return record("selectUserByEmail", () -> delegate.selectUserByEmail(email), InstrumentedCustomerDao::rows);
+    }
+
+    private <T> T record(String method, Supplier<T> call, ToIntFunction<T> rows) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        String exception = "none";
+        try {
+            T result = call.get();
+            if (rows != null) {
+                DistributionSummary.builder(ROWS_NAME)
+                        .tag("implementation", implementation)
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(rows.applyAsInt(result));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .tag("implementation", implementation)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static int rows(Optional<?> row) {
+        return row.isPresent() ? 1 : 0;
+    }
+
+    private static int rows(int[] updateCounts) {
+        int rows = 0;
+        for (int count : updateCounts) {
+            // batch drivers may report SUCCESS_NO_INFO (-2) instead of a count
+            rows += Math.max(count, 0);
+        }
+        return rows;
+    }
+}
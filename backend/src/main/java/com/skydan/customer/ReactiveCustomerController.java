@@ -0,0 +1,75 @@
+package com.skydan.customer;
+
+import com.skydan.jwt.JWTUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.skydan.customer.CustomerController.NEXT_CURSOR_HEADER;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@Profile("reactive")
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+    private final JWTUtil jwtUtil;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService,
+                                      JWTUtil jwtUtil) {
+        this.customerService = customerService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<CustomerDTO>>> getCustomers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return customerService.getCustomers(after, limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.customers());
+                });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerDTO> streamCustomers(
+            @RequestParam(value = "after", required = false) String after) {
+        return customerService.streamCustomers(after);
+    }
+
+    @GetMapping("{customerId}")
+    public Mono<CustomerDTO> getCustomer(@PathVariable("customerId") Long customerId) {
+        return customerService.getCustomer(customerId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> registerCustomer(@RequestBody CustomerRegistrationRequest request) {
+        return customerService.addCustomer(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok()
+                        .header(HttpHeaders.AUTHORIZATION, jwtUtil.issueToken(request.email(), "ROLE_USER"))
+                        .build()));
+    }
+
+    @DeleteMapping("{customerId}")
+    public Mono<Void> deleteCustomer(
+            @PathVariable("customerId") Long customerId) {
+        return customerService.deleteCustomerById(customerId);
+    }
+
+    @PutMapping("{customerId}")
+    public Mono<CustomerDTO> updateCustomer(
+            @PathVariable("customerId") Long customerId,
+            @RequestBody CustomerUpdateRequest updateRequest) {
+        return customerService.updateCustomer(customerId, updateRequest);
+    }
+}
@@ -0,0 +1,16 @@
+package com.skydan.customer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerDao {
+    Flux<CustomerView> selectCustomers(Long afterId, int limit);
+    Flux<CustomerView> streamCustomers(Long afterId);
+    Mono<CustomerView> selectCustomerViewById(Long customerId);
+    Mono<Customer> selectCustomerById(Long customerId);
+    Mono<Boolean> insertCustomer(Customer customer);
+    Mono<Boolean> existsCustomerWithEmail(String email);
+    Mono<Customer> deleteCustomerById(Long customerId);
+    Mono<Customer> updateCustomer(Customer update);
+    Mono<Customer> selectUserByEmail(String email);
+}
@@ -0,0 +1,160 @@
+package com.skydan.customer;
+
+import com.skydan.exception.DuplicateResourceException;
+import com.skydan.exception.RequestValidationException;
+import com.skydan.exception.ResourceNotFoundException;
+import com.skydan.jwt.TokenDenyList;
+import com.skydan.security.PasswordHasher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Customer operations for the reactive profile. Unlike {@link CustomerService}, mutations here write no
+ * {@link CustomerOutbox} rows and publish no change-feed events: neither the outbox relay nor a sink runs under
+ * this profile, so recorded rows would never be delivered or pruned.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDao customerDao;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final PasswordHasher passwordHasher;
+    private final TokenDenyList tokenDenyList;
+
+    public ReactiveCustomerService(ReactiveCustomerDao customerDao,
+                                   CustomerDTOMapper customerDTOMapper,
+                                   PasswordHasher passwordHasher,
+                                   TokenDenyList tokenDenyList) {
+        this.customerDao = customerDao;
+        this.customerDTOMapper = customerDTOMapper;
+        this.passwordHasher = passwordHasher;
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    public Mono<CustomerPage> getCustomers(String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            int pageSize = CustomerCursor.pageSize(limit);
+            // one extra row tells us whether another page exists without a count query
+            return customerDao.selectCustomers(CustomerCursor.decode(cursor), pageSize + 1)
+                    .map(customerDTOMapper::apply)
+                    .collectList()
+                    .map(customers -> {
+                        if(customers.size() <= pageSize) {
+                            return new CustomerPage(customers, null);
+                        }
+                        List<CustomerDTO> page = customers.subList(0, pageSize);
+                        return new CustomerPage(page, CustomerCursor.encode(page.get(pageSize - 1).id()));
+                    });
+        });
+    }
+
+    public Flux<CustomerDTO> streamCustomers(String cursor) {
+        return Flux.defer(() -> customerDao.streamCustomers(CustomerCursor.decode(cursor)))
+                .map(customerDTOMapper::apply);
+    }
+
+    public Mono<CustomerDTO> getCustomer(Long customerId) {
+        return customerDao.selectCustomerViewById(customerId)
+                .switchIfEmpty(Mono.error(() -> notFound(customerId)))
+                .map(customerDTOMapper::apply);
+    }
+
+    public Mono<Void> addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
+        return encode(customerRegistrationRequest.password())
+                .map(password -> new Customer(
+                        customerRegistrationRequest.name(),
+                        customerRegistrationRequest.email(),
+                        password,
+                        customerRegistrationRequest.age(),
+                        customerRegistrationRequest.gender()
+                ))
+                .flatMap(customerDao::insertCustomer)
+                // the unique email constraint decides, so two concurrent registrations cannot both succeed
+                .flatMap(inserted -> inserted
+                        ? Mono.empty()
+                        : Mono.error(new DuplicateResourceException("email already taken")));
+    }
+
+    public Mono<Void> deleteCustomerById(Long customerId) {
+        return customerDao.deleteCustomerById(customerId)
+                .switchIfEmpty(Mono.error(() -> notFound(customerId)))
+                .doOnNext(customer -> tokenDenyList.revokeSubject(customer.getEmail()))
+                .then();
+    }
+
+    public Mono<CustomerDTO> updateCustomer(Long customerId, CustomerUpdateRequest customerUpdateRequest) {
+        return customerDao.selectCustomerById(customerId)
+                .switchIfEmpty(Mono.error(() -> notFound(customerId)))
+                .flatMap(customer -> {
+                    String previousEmail = customer.getEmail();
+                    Customer changes = changes(customer, customerUpdateRequest);
+                    if(changes == null) {
+                        return Mono.error(new RequestValidationException("no data changes found"));
+                    }
+                    return customerDao.updateCustomer(changes)
+                            // email is the only unique column besides the id
+                            .onErrorMap(DuplicateKeyException.class,
+                                    e -> new DuplicateResourceException("email already taken"))
+                            .switchIfEmpty(Mono.error(() -> notFound(customerId)))
+                            .doOnNext(updated -> {
+                                if(!previousEmail.equals(updated.getEmail())) {
+                                    tokenDenyList.revokeSubject(previousEmail);
+                                }
+                            });
+                })
+                .map(customerDTOMapper);
+    }
+
+    private Mono<String> encode(String rawPassword) {
+        // hashing runs on the bounded hashing pool and completes the Mono from there; no thread waits on it
+        return Mono.fromFuture(() -> passwordHasher.encodeAsync(rawPassword));
+    }
+
+    /**
+     * Sparse update for {@link ReactiveCustomerDao#updateCustomer}: the id, the version that was read and only the fields the
+     * request actually changes, so the statement writes just those columns. {@code null} when nothing changes.
+     */
+    private static Customer changes(Customer customer, CustomerUpdateRequest customerUpdateRequest) {
+        Customer changes = new Customer();
+        boolean changed = false;
+
+        if(customerUpdateRequest.name() != null && !customerUpdateRequest.name().equals(customer.getName())){
+            changes.setName(customerUpdateRequest.name());
+            changed = true;
+        }
+
+        if(customerUpdateRequest.email() != null && !customerUpdateRequest.email().equals(customer.getEmail())){
+            changes.setEmail(customerUpdateRequest.email());
+            changed = true;
+        }
+
+        if(customerUpdateRequest.age() != null && !customerUpdateRequest.age().equals(customer.getAge())){
+            changes.setAge(customerUpdateRequest.age());
+            changed = true;
+        }
+
+        if(customerUpdateRequest.gender() != null && !customerUpdateRequest.gender().equals(customer.getGender())){
+            changes.setGender(customerUpdateRequest.gender());
+            changed = true;
+        }
+
+        if(!changed){
+            return null;
+        }
+        changes.setId(customer.getId());
+        changes.setVersion(customer.getVersion());
+        return changes;
+    }
+
+    private static ResourceNotFoundException notFound(Long customerId) {
+        return new ResourceNotFoundException(
+                "customer with id [%s] not found".formatted(customerId)
+        );
+    }
+}
@@ -0,0 +1,139 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Customer views by id in any Redis-protocol server, stored as JSON under {@code customer:<id>} with a TTL.
+ * Size eviction is left to the server's {@code maxmemory-policy}. Concurrent misses on one id are
+ * collapsed per instance; across instances each one loads at most once per TTL.
+ * <p>
+ * Every evict bumps a generation counter under {@code customer:<id>:generation}, and a load only stores its
+ * result if the generation is still the one it saw before reading the database. A load that read the row
+ * before a concurrent update committed, but finishes after that update's evict, is returned to its caller
+ * and not cached. The counter lives as long as one TTL, which must outlast any single load.
+ */
+public class RedisCustomerCache implements CustomerCache {
+
+    private static final String KEY_PREFIX = "customer:";
+    private static final String GENERATION_SUFFIX = ":generation";
+    private static final String STORE_IF_GENERATION_UNCHANGED = """
+            if (redis.call('get', KEYS[2]) or '') == ARGV[1] then
+                redis.call('psetex', KEYS[1], ARGV[2], ARGV[3])
+                return 1
+            end
+            return 0
+            """;
+    private static final String EVICT_AND_BUMP_GENERATION = """
+            redis.call('del', KEYS[1])
+            redis.call('incr', KEYS[2])
+            redis.call('pexpire', KEYS[2], ARGV[1])
+            return 1
+            """;
+
+    private final RedisCommands<String, String> redis;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final ConcurrentMap<Long, CompletableFuture<Optional<CustomerView>>> loading = new ConcurrentHashMap<>();
+
+    public RedisCustomerCache(StatefulRedisConnection<String, String> connection,
+                              ObjectMapper objectMapper,
+                              Duration ttl) {
+        this.redis = connection.sync();
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<CustomerView> get(Long customerId, Function<Long, Optional<CustomerView>> loader) {
+        List<KeyValue<String, String>> cached;
+        try {
+            // the generation is read along with the miss, before the loader runs
+            cached = redis.mget(KEY_PREFIX + customerId, KEY_PREFIX + customerId + GENERATION_SUFFIX);
+        } catch (RedisException e) {
+            // an unavailable cache should cost latency, not availability
+            return loader.apply(customerId);
+        }
+        if (cached.get(0).hasValue()) {
+            return Optional.of(read(cached.get(0).getValue()));
+        }
+        String generation = cached.get(1).getValueOrElse("");
+
+        CompletableFuture<Optional<CustomerView>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<CustomerView>> inFlight = loading.putIfAbsent(customerId, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Optional<CustomerView> loaded = loader.apply(customerId);
+            loaded.ifPresent(customer -> store(customerId, generation, customer));
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(customerId, load);
+        }
+    }
+
+    @Override
+    public void evict(Long customerId) {
+        // readers arriving after this must not join a load that may have read the old row
+        loading.remove(customerId);
+        try {
+            redis.eval(EVICT_AND_BUMP_GENERATION, ScriptOutputType.INTEGER,
+                    new String[]{KEY_PREFIX + customerId, KEY_PREFIX + customerId + GENERATION_SUFFIX},
+                    String.valueOf(ttl.toMillis()));
+        } catch (RedisException e) {
+            // evict runs inside the caller's write transaction, which must not roll back over the cache;
+            // the stale view stays readable until its TTL runs out
+        }
+    }
+
+    private void store(Long customerId, String generation, CustomerView customer) {
+        try {
+            // milliseconds, since whole seconds would turn a sub-second TTL into an expire of 0, which Redis rejects
+            redis.eval(STORE_IF_GENERATION_UNCHANGED, ScriptOutputType.INTEGER,
+                    new String[]{KEY_PREFIX + customerId, KEY_PREFIX + customerId + GENERATION_SUFFIX},
+                    generation, String.valueOf(ttl.toMillis()), write(customer));
+        } catch (RedisException e) {
+            // the customer is already loaded; the next read of this id just misses again
+        }
+    }
+
+    private String write(CustomerView customer) {
+        try {
+            return objectMapper.writeValueAsString(customer);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize customer " + customer.id(), e);
+        }
+    }
+
+    private CustomerView read(String json) {
+        try {
+            return objectMapper.readValue(json, CustomerView.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not deserialize cached customer", e);
+        }
+    }
+}
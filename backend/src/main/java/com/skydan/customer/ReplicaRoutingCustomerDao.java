@@ -0,0 +1,122 @@
+package com.skydan.customer;
+
+import com.skydan.datasource.ReadOnlyRouting;
+import com.skydan.datasource.ReadYourWrites;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Lets the reads of a {@link CustomerDao} run on a replica and records every write with {@link ReadYourWrites}.
+ * Lookups by id go to the primary while the customer was written within the read-your-writes window, for every
+ * caller, since a cache fill from a replica that has not replayed the write would keep the old row for its TTL.
+ * Existence checks guard writes and always use the primary. Both are routed explicitly, as JPA repository reads
+ * open read-only transactions of their own.
+ */
+public class ReplicaRoutingCustomerDao implements CustomerDao {
+
+    private final CustomerDao delegate;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingCustomerDao(CustomerDao delegate, ReadYourWrites readYourWrites) {
+        this.delegate = delegate;
+        this.readYourWrites = readYourWrites;
+    }
+
+    public CustomerDao getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return ReadOnlyRouting.readOnly(delegate::selectAllCustomers);
+    }
+
+    @Override
+    public List<CustomerView> selectCustomers(Long afterId, int limit) {
+        return ReadOnlyRouting.readOnly(() -> delegate.selectCustomers(afterId, limit));
+    }
+
+    @Override
+    public List<CustomerView> searchCustomers(CustomerSearch search, int limit) {
+        return ReadOnlyRouting.readOnly(() -> delegate.searchCustomers(search, limit));
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(Long customerId) {
+        return readById(customerId, () -> delegate.selectCustomerViewById(customerId));
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        return readById(customerId, () -> delegate.selectCustomerById(customerId));
+    }
+
+    @Override
+    public boolean insertCustomer(Customer customer) {
+        try {
+            return delegate.insertCustomer(customer);
+        } finally {
+            readYourWrites.recordWrite();
+        }
+    }
+
+    @Override
+    public int[] insertCustomers(List<Customer> customers) {
+        try {
+            return delegate.insertCustomers(customers);
+        } finally {
+            // a failed batch may still have written some rows
+            readYourWrites.recordWrite();
+        }
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return ReadOnlyRouting.onPrimary(() -> delegate.existsCustomerWithEmail(email));
+    }
+
+    @Override
+    public List<String> selectExistingEmails(List<String> emails) {
+        return ReadOnlyRouting.onPrimary(() -> delegate.selectExistingEmails(emails));
+    }
+
+    @Override
+    public Optional<Customer> deleteCustomerById(Long customerId) {
+        try {
+            return delegate.deleteCustomerById(customerId);
+        } finally {
+            readYourWrites.recordWrite(resource(customerId));
+        }
+    }
+
+    @Override
+    public boolean existsCustomerWithId(Long customerId) {
+        return ReadOnlyRouting.onPrimary(() -> delegate.existsCustomerWithId(customerId));
+    }
+
+    @Override
+    public Optional<UpdatedCustomer> updateCustomer(Customer update) {
+        try {
+            return delegate.updateCustomer(update);
+        } finally {
+            readYourWrites.recordWrite(resource(update.getId()));
+        }
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return ReadOnlyRouting.readOnly(() -> delegate.selectUserByEmail(email));
+    }
+
+    private <T> T readById(Long customerId, Supplier<T> read) {
+        return readYourWrites.isPinnedToPrimary(resource(customerId))
+                ? ReadOnlyRouting.onPrimary(read)
+                : ReadOnlyRouting.readOnly(read);
+    }
+
+    private static String resource(Long customerId) {
+        return "customer:" + customerId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.skydan.customer;
+
+/**
+ * Result of {@link CustomerDao#updateCustomer}: the row as written, plus the email it had before, so a renamed
+ * customer's cached user and tokens can be dropped without reading the row ahead of the update. When every given
+ * field already held its value nothing is written, {@code changed} is {@code false} and the row is the stored one.
+ */
+public record UpdatedCustomer(
+        Customer customer,
+        String previousEmail,
+        boolean changed
+) {
+    static UpdatedCustomer unchanged(Customer customer) {
+        return new UpdatedCustomer(customer, customer.getEmail(), false);
+    }
+
+    boolean emailChanged() {
+        return !previousEmail.equals(customer.getEmail());
+    }
+}
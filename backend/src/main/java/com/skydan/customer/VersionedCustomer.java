@@ -0,0 +1,7 @@
+package com.skydan.customer;
+
+public record VersionedCustomer(
+        CustomerDTO customer,
+        String eTag
+) {
+}
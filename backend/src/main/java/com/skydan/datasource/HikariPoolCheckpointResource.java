@@ -0,0 +1,93 @@
+package com.skydan.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.crac.Context;
+import org.crac.Resource;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Closes every physical connection of the given pools before a CRaC checkpoint and lets them refill after restore.
+ * A checkpoint with an open socket is refused, and a restored connection would point at a server session that is
+ * long gone. Needs {@code allow-pool-suspension}: callers wait in {@code getConnection} while the pool is suspended.
+ */
+public class HikariPoolCheckpointResource implements Resource {
+
+    // Hikari closes evicted connections on this executor, so a total of zero does not yet mean the sockets are shut
+    private static final Field CLOSE_CONNECTION_EXECUTOR =
+            ReflectionUtils.findField(HikariPool.class, "closeConnectionExecutor");
+
+    static {
+        ReflectionUtils.makeAccessible(CLOSE_CONNECTION_EXECUTOR);
+    }
+
+    private final List<HikariDataSource> dataSources;
+    private final Duration drainTimeout;
+
+    public HikariPoolCheckpointResource(List<HikariDataSource> dataSources, Duration drainTimeout) {
+        this.dataSources = dataSources;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        List<HikariPoolMXBean> suspended = new ArrayList<>();
+        try {
+            for (HikariDataSource dataSource : dataSources) {
+                HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                // null until the first getConnection, and then there is nothing to close
+                if (pool == null) {
+                    continue;
+                }
+                pool.suspendPool();
+                suspended.add(pool);
+                // idle connections close now, the ones in use as soon as they are returned
+                pool.softEvictConnections();
+            }
+            awaitClosed(suspended);
+        } catch (Exception e) {
+            suspended.forEach(HikariPoolMXBean::resumePool);
+            throw e;
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        for (HikariDataSource dataSource : dataSources) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                pool.resumePool();
+            }
+        }
+    }
+
+    private void awaitClosed(List<HikariPoolMXBean> pools) throws InterruptedException {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (!pools.stream().allMatch(HikariPoolCheckpointResource::closed)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(
+                        "connections still open after %s, refusing the checkpoint".formatted(drainTimeout));
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static boolean closed(HikariPoolMXBean pool) {
+        if (pool.getTotalConnections() > 0) {
+            return false;
+        }
+        if (pool instanceof HikariPool hikariPool) {
+            ThreadPoolExecutor closer =
+                    (ThreadPoolExecutor) ReflectionUtils.getField(CLOSE_CONNECTION_EXECUTOR, hikariPool);
+            return closer.getActiveCount() == 0 && closer.getQueue().isEmpty();
+        }
+        return true;
+    }
+}
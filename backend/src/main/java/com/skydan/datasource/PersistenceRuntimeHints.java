@@ -0,0 +1,32 @@
+package com.skydan.datasource;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Native-image hints for Flyway and Hibernate, covering what the published reachability metadata misses for
+ * the versions in use: the migration scripts, Flyway's version file and log creator, and the id optimizer
+ * and dialect that application.yml names and Hibernate instantiates by name.
+ */
+public class PersistenceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources()
+                .registerPattern("db/migration/*.sql")
+                .registerPattern("org/flywaydb/core/internal/version.txt");
+        hints.reflection()
+                .registerType(
+                        TypeReference.of("org.flywaydb.core.internal.logging.slf4j.Slf4jLogCreator"),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                // hibernate.id.optimizer.pooled.preferred: pooled-lo
+                .registerType(
+                        TypeReference.of("org.hibernate.id.enhanced.PooledLoOptimizer"),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(
+                        TypeReference.of("org.hibernate.dialect.PostgreSQLDialect"),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,50 @@
+package com.skydan.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks work that may be served by a replica. Read-only transactions qualify on their own; non-transactional
+ * reads, such as a single {@code JdbcTemplate} query, are marked with {@link #readOnly}. Inside a read-write
+ * transaction everything stays on the primary, since later statements of that transaction may write.
+ * {@link #onPrimary} keeps work on the primary even when it opens its own read-only transaction, as Spring
+ * Data repository reads do.
+ */
+public final class ReadOnlyRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private ReadOnlyRouting() {
+    }
+
+    public static <T> T readOnly(Supplier<T> operation) {
+        return routed(Boolean.TRUE, operation);
+    }
+
+    public static <T> T onPrimary(Supplier<T> operation) {
+        return routed(Boolean.FALSE, operation);
+    }
+
+    public static boolean isReadOnly() {
+        Boolean marked = READ_ONLY.get();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !Boolean.FALSE.equals(marked);
+        }
+        return Boolean.TRUE.equals(marked);
+    }
+
+    private static <T> T routed(Boolean readOnly, Supplier<T> operation) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(readOnly);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                READ_ONLY.remove();
+            } else {
+                READ_ONLY.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.skydan.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Keeps a caller's reads on the primary for a short window after that caller wrote, so replication lag
+ * never hides their own change. Callers are told apart by the authenticated principal; unauthenticated
+ * requests, like a registration followed by a login, share one key. A write can also name the resource it
+ * changed, whose reads then stay on the primary for every caller during the window, so a shared cache is
+ * not refilled from a replica that has not replayed the write yet. A zero window disables pinning.
+ */
+public class ReadYourWrites {
+
+    private static final String ANONYMOUS = "";
+
+    private final Cache<String, Boolean> recentWriters;
+    private final Cache<String, Boolean> recentlyWritten;
+
+    public ReadYourWrites(Duration window, long maximumSize) {
+        this.recentWriters = window.isZero() ? null : pins(window, maximumSize);
+        this.recentlyWritten = window.isZero() ? null : pins(window, maximumSize);
+    }
+
+    public void recordWrite() {
+        if (recentWriters != null) {
+            recentWriters.put(currentCaller(), Boolean.TRUE);
+        }
+    }
+
+    public void recordWrite(String resource) {
+        recordWrite();
+        if (recentlyWritten != null) {
+            recentlyWritten.put(resource, Boolean.TRUE);
+        }
+    }
+
+    public boolean isPinnedToPrimary(String resource) {
+        return recentlyWritten != null && recentlyWritten.getIfPresent(resource) != null;
+    }
+
+    boolean isPinnedToPrimary() {
+        return recentWriters != null && recentWriters.getIfPresent(currentCaller()) != null;
+    }
+
+    private static Cache<String, Boolean> pins(Duration window, long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+        return authentication.getName();
+    }
+}
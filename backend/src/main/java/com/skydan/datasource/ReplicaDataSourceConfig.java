@@ -0,0 +1,81 @@
+package com.skydan.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only work to the replicas listed in
+ * {@code datasource.replicas.urls}. {@code spring.datasource} stays the primary and the replicas share
+ * its credentials.
+ */
+@Configuration
+@Profile("read-replicas & !reactive")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${datasource.replicas.read-your-writes-window}") Duration window,
+                                         @Value("${datasource.replicas.read-your-writes-maximum-size}") long maximumSize) {
+        return new ReadYourWrites(window, maximumSize);
+    }
+
+    // the same binding Boot applies to its own pool, so spring.datasource.hikari still tunes the primary
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            ReadYourWrites readYourWrites,
+            @Value("${datasource.replicas.urls}") String[] urls,
+            @Value("${datasource.replicas.health-check-interval}") Duration healthCheckInterval,
+            @Value("${datasource.replicas.connection-timeout}") Duration connectionTimeout,
+            @Value("${datasource.replicas.max-lag}") Duration maxLag,
+            MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(urls[i])
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            // an unreachable replica should fail over to the primary quickly, not hold the request for 30s
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(
+                primaryDataSource, replicas, readYourWrites, healthCheckInterval, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,136 @@
+package com.skydan.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out primary connections for writes and replica connections, round robin, for
+ * {@linkplain ReadOnlyRouting read-only work}.
+ * <p>
+ * A replica is skipped while it is unhealthy: when it refused a connection, failed the last health check,
+ * or replays more than {@code maxLag} behind the primary. With no healthy replica, or while
+ * {@link ReadYourWrites} pins the caller, reads go to the primary. The choice is made when a physical
+ * connection is opened, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise a transaction would
+ * open its connection before it is marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    // zero while the replica has replayed everything it received, so an idle primary does not count as lag
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<DataSource> replicas,
+                                    ReadYourWrites readYourWrites,
+                                    Duration healthCheckInterval,
+                                    Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLag = maxLag;
+        for (int i = 0; i < this.replicas.size(); i++) {
+            Gauge.builder("datasource.replica.healthy", this.replicas.get(i), replica -> replica.healthy ? 1 : 0)
+                    .description("Whether the replica currently receives read-only connections")
+                    .tag("replica", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.healthChecker.scheduleWithFixedDelay(
+                this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadOnlyRouting.isReadOnly() && !readYourWrites.isPinnedToPrimary()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    // the next health check decides when it gets traffic again
+                    replica.healthy = false;
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("connections use the configured credentials");
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.healthy = isHealthy(replica.dataSource);
+        }
+    }
+
+    private boolean isHealthy(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(LAG_SQL)) {
+            return lag.next() && lag.getDouble(1) * 1000 <= maxLag.toMillis();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        // starts unhealthy; the first check runs as soon as the data source is created
+        private volatile boolean healthy;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
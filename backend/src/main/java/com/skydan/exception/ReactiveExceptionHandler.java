@@ -0,0 +1,91 @@
+package com.skydan.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.time.LocalDateTime;
+
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ApiError> handleException(ResourceNotFoundException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.NOT_FOUND.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(DuplicateResourceException.class)
+    public ResponseEntity<ApiError> handleException(DuplicateResourceException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.CONFLICT.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RequestValidationException.class)
+    public ResponseEntity<ApiError> handleException(RequestValidationException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.BAD_REQUEST.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handleException(PreconditionFailedException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.PRECONDITION_FAILED.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<ApiError> handleException(BadCredentialsException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.UNAUTHORIZED.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleException(OptimisticLockingFailureException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.CONFLICT.value(), LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleException(ServiceUnavailableException e,
+                                                    ServerHttpRequest request) {
+        ApiError apiError = new ApiError(
+                request.getPath().value(), e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value(), LocalDateTime.now()
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        return new ResponseEntity<>(apiError, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+}
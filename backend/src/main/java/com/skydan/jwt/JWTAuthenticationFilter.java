@@ -1,10 +1,13 @@
 package com.skydan.jwt;
 
 import com.skydan.customer.CustomerUserDetailsService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,15 +20,27 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
+@Profile("!reactive")
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot set headers, so the change stream also takes a stream token from the query string
+    private static final String STREAM_PATH = "/api/v1/customers/changes";
+    private static final String STREAM_TOKEN_PARAMETER = "access_token";
+
     private final JWTUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenDenyList tokenDenyList;
+    // when enabled the principal is rebuilt from the token claims instead of loaded from the database
+    private final boolean statelessPrincipal;
 
     public JWTAuthenticationFilter(JWTUtil jwtUtil,
-                                   CustomerUserDetailsService userDetailsService) {
+                                   CustomerUserDetailsService userDetailsService,
+                                   TokenDenyList tokenDenyList,
+                                   @Value("${jwt.stateless-principal:false}") boolean statelessPrincipal) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenDenyList = tokenDenyList;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -33,18 +48,21 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
+        String jwt = token(request);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (jwt == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String jwt = authHeader.substring(7);
         String subject = jwtUtil.getSubject(jwt);
 
-        if (subject != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+        if (subject != null
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenDenyList.isRevoked(subject, jwtUtil.getIssuedAt(jwt))) {
+            UserDetails userDetails = statelessPrincipal
+                    ? jwtUtil.getPrincipal(jwt)
+                    : userDetailsService.loadUserByUsername(subject);
             if (jwtUtil.isTokenValid(jwt, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
@@ -60,4 +78,23 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+    // a stream token is only accepted where EventSource has to send it, and nowhere as a Bearer token
+    private String token(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String jwt = authHeader.substring(7);
+            return jwtUtil.isStreamToken(jwt) ? null : jwt;
+        }
+        String streamToken = request.getParameter(STREAM_TOKEN_PARAMETER);
+        if (streamToken == null || !STREAM_PATH.equals(request.getServletPath())) {
+            return null;
+        }
+        try {
+            // EventSource reconnects with the same URL, so expired stream tokens are routine; the client asks for a new one
+            return jwtUtil.isStreamToken(streamToken) ? streamToken : null;
+        } catch (JwtException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.skydan.jwt;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Native-image hints for jjwt. {@code Jwts} creates its builders, parsers, claims and headers by class name,
+ * and the JSON serializer and compression codecs are found through {@code ServiceLoader}.
+ */
+public class JWTRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> INSTANTIATED_BY_NAME = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    );
+
+    private static final List<String> SERVICES = List.of(
+            "io.jsonwebtoken.CompressionCodec",
+            "io.jsonwebtoken.io.Serializer",
+            "io.jsonwebtoken.io.Deserializer"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        INSTANTIATED_BY_NAME.forEach(type -> hints.reflection().registerType(
+                TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        SERVICES.forEach(service -> hints.resources().registerPattern("META-INF/services/" + service));
+    }
+}
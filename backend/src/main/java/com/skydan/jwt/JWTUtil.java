@@ -1,25 +1,63 @@
 package com.skydan.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
-import static java.time.temporal.ChronoUnit.*;
-
 @Service
 public class JWTUtil {
 
+    static final long TOKEN_VALIDITY_DAYS = 15;
+    // stream tokens ride in a query string, where EventSource puts them, so they only open the change stream
+    // and expire quickly
+    static final String STREAM_TOKEN_AUDIENCE = "customer-changes";
+    static final Duration STREAM_TOKEN_VALIDITY = Duration.ofMinutes(1);
+
     private static final String SECRET_KEY =
             "ipatova_avenirovna_ipatova_avenirovna_ipatova_avenirovna_ipatova_avenirovna_ipatova_avenirovna_ipatova_avenirovna";
 
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    // verified claims keyed by the SHA-256 digest of the token, evicted when the token expires
+    private final Cache<String, Claims> claimsCache;
+
+    public JWTUtil(@Value("${jwt.claims-cache.maximum-size}") long claimsCacheMaximumSize,
+                   MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        this.jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaximumSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+    }
+
     public String issueToken(String subject){
         return issueToken(subject, Map.of());
     }
@@ -33,19 +71,32 @@ public class JWTUtil {
     }
 
     public String issueToken(String subject, Map<String, Object> claims) {
+        return issueToken(subject, claims, null, Duration.ofDays(TOKEN_VALIDITY_DAYS));
+    }
+
+    /**
+     * A token for opening the customer change stream, which browsers can only pass as a query parameter.
+     * Bearer authentication refuses it, see {@link #isStreamToken}.
+     */
+    public String issueStreamToken(String subject, List<String> scopes) {
+        return issueToken(subject, Map.of("scopes", scopes), STREAM_TOKEN_AUDIENCE, STREAM_TOKEN_VALIDITY);
+    }
+
+    private String issueToken(String subject, Map<String, Object> claims, String audience, Duration validity) {
 
         String token = Jwts
                 .builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setAudience(audience)
                 .setIssuer("https://amigoscode.com")
                 .setIssuedAt(Date.from(Instant.now()))
                 .setExpiration(
                         Date.from(
-                                Instant.now().plus(15, DAYS)
+                                Instant.now().plus(validity)
                         )
                 )
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
 
@@ -56,18 +107,44 @@ public class JWTUtil {
         return getClaims(token).getSubject();
     }
 
+    public Date getIssuedAt(String token) {
+        return getClaims(token).getIssuedAt();
+    }
+
+    public List<String> getScopes(String token) {
+        List<?> scopes = getClaims(token).get("scopes", List.class);
+        if (scopes == null) {
+            return List.of();
+        }
+        return scopes.stream()
+                .map(String::valueOf)
+                .toList();
+    }
+
+    public boolean isStreamToken(String token) {
+        return STREAM_TOKEN_AUDIENCE.equals(getClaims(token).getAudience());
+    }
+
+    public UserDetails getPrincipal(String token) {
+        // rebuilt from the verified claims alone, so no user lookup is needed per request
+        return User.withUsername(getSubject(token))
+                .password("")
+                .authorities(getScopes(token).toArray(String[]::new))
+                .build();
+    }
+
     private Claims getClaims(String token) {
-        Claims claims = Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims;
+        return claimsCache.get(digest(token), key -> jwtParser.parseClaimsJws(token).getBody());
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public boolean isTokenValid(String jwt, String username) {
@@ -80,4 +157,26 @@ public class JWTUtil {
 
         return getClaims(jwt).getExpiration().before(today);
     }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(0, Duration.between(Instant.now(), expiration.toInstant()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package com.skydan.jwt;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link JWTAuthenticationFilter}. The principal is always rebuilt from the
+ * token claims, so authenticating a request never touches the database.
+ * Not a bean on purpose: WebFlux would otherwise also register it outside the security chain.
+ */
+public class JWTWebFilter implements WebFilter {
+
+    private final JWTUtil jwtUtil;
+    private final TokenDenyList tokenDenyList;
+
+    public JWTWebFilter(JWTUtil jwtUtil, TokenDenyList tokenDenyList) {
+        this.jwtUtil = jwtUtil;
+        this.tokenDenyList = tokenDenyList;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        String jwt = authHeader.substring(7);
+        String subject = jwtUtil.getSubject(jwt);
+
+        if (subject == null
+                || jwtUtil.isStreamToken(jwt)
+                || tokenDenyList.isRevoked(subject, jwtUtil.getIssuedAt(jwt))
+                || !jwtUtil.isTokenValid(jwt, subject)) {
+            return chain.filter(exchange);
+        }
+
+        UserDetails userDetails = jwtUtil.getPrincipal(jwt);
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()
+                );
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticationToken));
+    }
+}
@@ -0,0 +1,29 @@
+package com.skydan.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+@Component
+public class TokenDenyList {
+
+    // subject -> moment its tokens were revoked; kept only as long as a token can live
+    private final Cache<String, Instant> revokedSubjects = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofDays(JWTUtil.TOKEN_VALIDITY_DAYS))
+            .build();
+
+    public void revokeSubject(String subject) {
+        revokedSubjects.put(subject, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    public boolean isRevoked(String subject, Date issuedAt) {
+        Instant revokedAt = revokedSubjects.getIfPresent(subject);
+        return revokedAt != null
+                && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt));
+    }
+}
@@ -0,0 +1,29 @@
+package com.skydan.security;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+/**
+ * The HTTP Basic user that may read the non-public actuator endpoints (metrics, prometheus).
+ * Without a configured password there is no such user and only health and info answer.
+ */
+final class ActuatorUsers {
+
+    static final String ROLE = "ACTUATOR";
+
+    private ActuatorUsers() {
+    }
+
+    static List<UserDetails> scrapers(String username, String password, PasswordEncoder passwordEncoder) {
+        if (username.isBlank() || password.isBlank()) {
+            return List.of();
+        }
+        return List.of(User.withUsername(username)
+                .password(passwordEncoder.encode(password))
+                .roles(ROLE)
+                .build());
+    }
+}
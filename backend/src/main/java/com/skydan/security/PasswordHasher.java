@@ -0,0 +1,129 @@
+package com.skydan.security;
+
+import com.skydan.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class PasswordHasher implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+    private final int threads;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${security.password.hashing.pool-size:0}") int poolSize,
+                          @Value("${security.password.hashing.queue-capacity}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        // 0 sizes the pool to the available cores; a full queue rejects the hash rather than running it on the
+        // request thread, and the caller answers 503 so request threads never queue up behind BCrypt
+        threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPoolExecutor, "password.hashing");
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(rawPassword));
+    }
+
+    /**
+     * Hashes on the pool without blocking the caller; for callers that must not park a thread on the result.
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    public List<String> encodeAll(List<String> rawPasswords) {
+        // at most one hash per pool thread in flight, so a large import shares the queue instead of filling it
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>(threads);
+        for (String rawPassword : rawPasswords) {
+            if (inFlight.size() == threads) {
+                hashes.add(await(inFlight.removeFirst()));
+            }
+            Future<String> hash;
+            while ((hash = trySubmit(rawPassword)) == null) {
+                // a finished hash does not mean its thread took the next task yet; wait on our own work before giving up
+                if (inFlight.isEmpty()) {
+                    throw busy();
+                }
+                hashes.add(await(inFlight.removeFirst()));
+            }
+            inFlight.addLast(hash);
+        }
+        while (!inFlight.isEmpty()) {
+            hashes.add(await(inFlight.removeFirst()));
+        }
+        return hashes;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private Future<String> submit(String rawPassword) {
+        Future<String> hash = trySubmit(rawPassword);
+        if (hash == null) {
+            throw busy();
+        }
+        return hash;
+    }
+
+    private Future<String> trySubmit(String rawPassword) {
+        try {
+            return executor.submit(() -> passwordEncoder.encode(rawPassword));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static ServiceUnavailableException busy() {
+        return new ServiceUnavailableException("password hashing is at capacity, try again shortly");
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
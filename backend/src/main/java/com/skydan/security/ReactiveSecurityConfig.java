@@ -0,0 +1,115 @@
+package com.skydan.security;
+
+import com.skydan.jwt.JWTUtil;
+import com.skydan.jwt.JWTWebFilter;
+import com.skydan.jwt.TokenDenyList;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+            ReactiveUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder
+    ) {
+        // password matching runs on the bounded elastic scheduler, off the event loop
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        if (userDetailsService instanceof ReactiveUserDetailsPasswordService userDetailsPasswordService) {
+            authenticationManager.setUserDetailsPasswordService(userDetailsPasswordService);
+        }
+        return authenticationManager;
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityWebFilterChain actuatorSecurityWebFilterChain(
+            ServerHttpSecurity http,
+            PasswordEncoder passwordEncoder,
+            @Value("${security.actuator.username}") String username,
+            @Value("${security.actuator.password}") String password
+    ) {
+        List<UserDetails> scrapers = ActuatorUsers.scrapers(username, password, passwordEncoder);
+        UserDetailsRepositoryReactiveAuthenticationManager scraperAuthenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(name -> Flux.fromIterable(scrapers)
+                        .filter(scraper -> scraper.getUsername().equals(name))
+                        .next());
+        scraperAuthenticationManager.setPasswordEncoder(passwordEncoder);
+
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf().disable()
+                .formLogin().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .matchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class))
+                .permitAll()
+                .anyExchange()
+                .hasRole(ActuatorUsers.ROLE)
+                .and()
+                .httpBasic()
+                .authenticationManager(scraperAuthenticationManager);
+
+        return http.build();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         JWTUtil jwtUtil,
+                                                         TokenDenyList tokenDenyList) {
+        http
+                .csrf().disable()
+                .cors(Customizer.withDefaults())
+                .httpBasic().disable()
+                .formLogin().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .pathMatchers(
+                        HttpMethod.POST,
+                        "/api/v1/customers",
+                        "/api/v1/auth/login"
+                )
+                .permitAll()
+                .pathMatchers(HttpMethod.GET, "/ping")
+                .permitAll()
+                .anyExchange()
+                .authenticated()
+                .and()
+                .addFilterAt(new JWTWebFilter(jwtUtil, tokenDenyList), SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN));
+
+        return http.build();
+    }
+
+}
@@ -1,13 +1,25 @@
 package com.skydan.security;
 
 import com.skydan.jwt.JWTAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -16,6 +28,7 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 
 @Configuration
 @EnableWebSecurity
+@Profile("!reactive")
 public class SecurityFilterChainConfig {
 
     private final AuthenticationProvider authenticationProvider;
@@ -30,12 +43,47 @@ public class SecurityFilterChainConfig {
         this.authenticationEntryPoint = authenticationEntryPoint;
     }
 
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityFilterChain actuatorSecurityFilterChain(
+            HttpSecurity http,
+            PasswordEncoder passwordEncoder,
+            @Value("${security.actuator.username}") String username,
+            @Value("${security.actuator.password}") String password
+    ) throws Exception {
+        DaoAuthenticationProvider scraperAuthenticationProvider = new DaoAuthenticationProvider();
+        scraperAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        scraperAuthenticationProvider.setUserDetailsService(new InMemoryUserDetailsManager(
+                ActuatorUsers.scrapers(username, password, passwordEncoder)
+        ));
+
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf().disable()
+                .authorizeHttpRequests()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class))
+                .permitAll()
+                .anyRequest()
+                .hasRole(ActuatorUsers.ROLE)
+                .and()
+                .sessionManagement()
+                .sessionCreationPolicy(STATELESS)
+                .and()
+                .authenticationManager(new ProviderManager(scraperAuthenticationProvider))
+                .httpBasic();
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf().disable()
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests()
+                // the request was authorized before it went async (SSE streams); the JWT filter does not rerun on the dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                .permitAll()
                 .requestMatchers(
                         HttpMethod.POST,
                         "/api/v1/customers",
@@ -44,8 +92,6 @@ public class SecurityFilterChainConfig {
                 .permitAll()
                 .requestMatchers(HttpMethod.GET, "/ping")
                 .permitAll()
-                .requestMatchers(HttpMethod.GET, "/actuator/**")
-                .permitAll()
                 .anyRequest()
                 .authenticated()
                 .and()
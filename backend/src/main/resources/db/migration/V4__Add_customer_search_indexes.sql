@@ -0,0 +1,12 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- filters and sort orders of GET /api/v1/customers; id completes each key so keyset pages seek instead of sort
+CREATE INDEX customer_age_id_idx ON customer (age, id);
+CREATE INDEX customer_gender_age_id_idx ON customer (gender, age, id);
+CREATE INDEX customer_name_id_idx ON customer (name, id);
+
+-- case-insensitive name substring search: lower(name) LIKE '%...%'
+CREATE INDEX customer_name_trgm_idx ON customer USING gin (lower(name) gin_trgm_ops);
+
+-- case-insensitive email prefix search and lookups: lower(email) LIKE '...%', whatever the database collation
+CREATE INDEX customer_email_lower_idx ON customer (lower(email) text_pattern_ops);
@@ -0,0 +1,3 @@
+-- Customer allocates ids in blocks of 50 (pooled-lo): one nextval reserves [value, value + 50) for inserts
+-- through JPA. Inserts that take the column default use a single value and leave the rest of that block unused.
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
@@ -0,0 +1,181 @@
+package com.skydan.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerDaoTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private CachingCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CachingCustomerDao(
+                customerDao,
+                new CaffeineCustomerCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry())
+        );
+    }
+
+    @Test
+    void selectCustomerViewByIdLoadsOnce() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomerViewById(1L)).thenReturn(Optional.of(alex));
+
+        //When
+        Optional<CustomerView> first = underTest.selectCustomerViewById(1L);
+        Optional<CustomerView> second = underTest.selectCustomerViewById(1L);
+
+        //Then
+        assertThat(first).contains(alex);
+        assertThat(second).contains(alex);
+        verify(customerDao, times(1)).selectCustomerViewById(1L);
+    }
+
+    @Test
+    void selectCustomerByIdReadsThroughToTheDelegate() {
+        //Given
+        Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(alex));
+
+        //When
+        underTest.selectCustomerById(1L);
+        Optional<Customer> actual = underTest.selectCustomerById(1L);
+
+        //Then
+        assertThat(actual).contains(alex);
+        verify(customerDao, times(2)).selectCustomerById(1L);
+    }
+
+    @Test
+    void missesAreNotCached() {
+        //Given
+        when(customerDao.selectCustomerViewById(1L)).thenReturn(Optional.empty());
+
+        //When
+        underTest.selectCustomerViewById(1L);
+        underTest.selectCustomerViewById(1L);
+
+        //Then
+        verify(customerDao, times(2)).selectCustomerViewById(1L);
+    }
+
+    @Test
+    void updateCustomerEvictsEvenWhenItFails() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomerViewById(1L)).thenReturn(Optional.of(alex));
+        when(customerDao.updateCustomer(any()))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+        underTest.selectCustomerViewById(1L);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(new Customer(1L, "Alex", "alex@gmail.com", "password", 21, "MALE")))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        underTest.selectCustomerViewById(1L);
+
+        //Then
+        verify(customerDao, times(2)).selectCustomerViewById(1L);
+    }
+
+    @Test
+    void updateCustomerInsideTransactionEvictsAgainOnCompletion() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        CustomerView renamed = new CustomerView(1L, "Alexander", "alex@gmail.com", 21, "MALE", 1);
+        when(customerDao.selectCustomerViewById(1L))
+                .thenReturn(Optional.of(alex))
+                .thenReturn(Optional.of(renamed));
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.empty());
+
+        //When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            underTest.updateCustomer(new Customer(1L, "Alexander", "alex@gmail.com", "password", 21, "MALE"));
+            // a concurrent read before the commit still sees the old row and caches it
+            underTest.selectCustomerViewById(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //Then
+        assertThat(underTest.selectCustomerViewById(1L))
+                .hasValueSatisfying(c -> assertThat(c.name()).isEqualTo("Alexander"));
+    }
+
+    @Test
+    void deleteCustomerByIdEvicts() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomerViewById(1L))
+                .thenReturn(Optional.of(alex))
+                .thenReturn(Optional.empty());
+        when(customerDao.deleteCustomerById(1L)).thenReturn(Optional.empty());
+        underTest.selectCustomerViewById(1L);
+
+        //When
+        underTest.deleteCustomerById(1L);
+
+        //Then
+        assertThat(underTest.selectCustomerViewById(1L)).isEmpty();
+    }
+
+    @Test
+    void concurrentMissesOnOneIdShareASingleLoad() throws Exception {
+        //Given
+        int threads = 8;
+        CountDownLatch loading = new CountDownLatch(1);
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomerViewById(1L)).thenAnswer(invocation -> {
+            loading.await();
+            return Optional.of(alex);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //When
+        List<Future<Optional<CustomerView>>> results;
+        try {
+            results = IntStream.range(0, threads)
+                    .mapToObj(i -> executor.submit((Callable<Optional<CustomerView>>) () -> underTest.selectCustomerViewById(1L)))
+                    .toList();
+            Thread.sleep(100);
+            loading.countDown();
+            for (Future<Optional<CustomerView>> result : results) {
+                assertThat(result.get()).contains(alex);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        verify(customerDao, times(1)).selectCustomerViewById(1L);
+    }
+}
@@ -0,0 +1,207 @@
+package com.skydan.customer;
+
+import com.skydan.jwt.JWTUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class CustomerChangeFeedTest {
+
+    private static final CustomerDTO MARIA = new CustomerDTO(
+            1L, "Maria", "maria@gmail.com", 18, "FEMALE", List.of("ROLE_USER"), "maria@gmail.com");
+
+    private CustomerChangeFeed underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void pushesChangesPublishedAfterSubscribing() throws Exception {
+        //Given
+        underTest = feed(16);
+        MockHttpServletResponse response = subscribe(null);
+
+        //When
+        underTest.publish(CustomerChangeEvent.Type.UPDATED, 1L, MARIA);
+        underTest.publish(CustomerChangeEvent.Type.DELETED, 1L, null);
+
+        //Then
+        String stream = await(response, body -> body.contains("event:deleted"));
+        assertThat(stream)
+                .contains("id:" + underTest.eventId(1) + "\nevent:updated\n")
+                .contains("\"name\":\"Maria\"")
+                .contains("id:" + underTest.eventId(2) + "\nevent:deleted\n");
+    }
+
+    @Test
+    void resumesAfterLastEventId() throws Exception {
+        //Given
+        underTest = feed(16);
+        underTest.publish(CustomerChangeEvent.Type.CREATED, 1L, MARIA);
+        underTest.publish(CustomerChangeEvent.Type.UPDATED, 1L, MARIA);
+        underTest.publish(CustomerChangeEvent.Type.DELETED, 1L, null);
+
+        //When
+        MockHttpServletResponse response = subscribe(underTest.eventId(1));
+
+        //Then
+        String stream = await(response, body -> body.contains("event:deleted"));
+        assertThat(stream)
+                .doesNotContain("event:created")
+                .contains("event:updated");
+    }
+
+    @Test
+    void resetsClientsThatFellBehindTheBuffer() throws Exception {
+        //Given
+        underTest = feed(2);
+        for (int i = 0; i < 5; i++) {
+            underTest.publish(CustomerChangeEvent.Type.UPDATED, 1L, MARIA);
+        }
+
+        //When
+        MockHttpServletResponse response = subscribe(underTest.eventId(1));
+        String reset = await(response, body -> body.contains("event:reset"));
+        underTest.publish(CustomerChangeEvent.Type.DELETED, 1L, null);
+
+        //Then
+        assertThat(reset).startsWith("id:" + underTest.eventId(5) + "\nevent:reset\n");
+        assertThat(await(response, body -> body.contains("event:deleted")))
+                .contains("id:" + underTest.eventId(6) + "\nevent:deleted\n")
+                .doesNotContain("event:updated");
+    }
+
+    @Test
+    void resetsClientsResumingFromAnotherStream() throws Exception {
+        //Given
+        underTest = feed(16);
+
+        //When
+        MockHttpServletResponse response = subscribe("deadbeef-3");
+
+        //Then
+        assertThat(await(response, body -> body.contains("event:reset"))).startsWith("id:" + underTest.eventId(0));
+    }
+
+    @Test
+    void clientsThatStopReadingDoNotHoldUpTheOthers() throws Exception {
+        //Given
+        underTest = new CustomerChangeFeed(16, Duration.ofMinutes(1), Duration.ofMillis(50), 4, 16, Duration.ofMinutes(1));
+        CountDownLatch socketTimeout = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            underTest.subscribe(null, new StalledEmitter(socketTimeout));
+        }
+        MockHttpServletResponse response = subscribe(null);
+
+        try {
+            //When
+            underTest.publish(CustomerChangeEvent.Type.UPDATED, 1L, MARIA);
+
+            //Then
+            String stream = await(response, body -> body.contains("event:updated") && body.contains(":heartbeat"));
+            assertThat(stream).contains("event:updated").contains(":heartbeat");
+        } finally {
+            socketTimeout.countDown();
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (underTest.subscriberCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(underTest.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledClientsNeverGrowTheSenderPool() throws Exception {
+        //Given
+        underTest = new CustomerChangeFeed(16, Duration.ofMinutes(1), Duration.ofMillis(50), 2, 2, Duration.ofMillis(200));
+        CountDownLatch socketTimeout = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 20; i++) {
+                underTest.subscribe(null, new StalledEmitter(socketTimeout));
+            }
+
+            //When
+            underTest.publish(CustomerChangeEvent.Type.UPDATED, 1L, MARIA);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (underTest.subscriberCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            //Then
+            // the subscribers that could not be queued are completed and the blocked ones are cut off, without
+            // the socket ever timing out
+            assertThat(underTest.subscriberCount()).isZero();
+            assertThat(underTest.largestSenderCount()).isEqualTo(2);
+            MockHttpServletResponse response = subscribe(null);
+            underTest.publish(CustomerChangeEvent.Type.DELETED, 1L, null);
+            assertThat(await(response, body -> body.contains("event:deleted"))).contains("event:deleted");
+        } finally {
+            socketTimeout.countDown();
+        }
+    }
+
+    private CustomerChangeFeed feed(int bufferSize) {
+        return new CustomerChangeFeed(bufferSize, Duration.ofMinutes(1), Duration.ofMinutes(1), 2, 16, Duration.ofMinutes(1));
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CustomerController(
+                mock(CustomerService.class), mock(CustomerImportService.class), mock(CustomerExportService.class), mock(JWTUtil.class), underTest
+        )).build();
+        var request = get("/api/v1/customers/changes");
+        if (lastEventId != null) {
+            request.header(CustomerController.LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String body = response.getContentAsString();
+        while (!condition.test(body) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = response.getContentAsString();
+        }
+        return body;
+    }
+
+    // a client whose receive window is full: every write blocks until the socket times out
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch socketTimeout;
+
+        StalledEmitter(CountDownLatch socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                socketTimeout.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SocketTimeoutException();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.skydan.customer;
+
+import com.skydan.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerETagsTest {
+
+    @Test
+    void expectedVersionIsReadFromIfMatch() {
+        //When
+        Integer actual = CustomerETags.expectedVersion(7L, "\"7-12\"");
+
+        //Then
+        assertThat(actual).isEqualTo(12);
+    }
+
+    @Test
+    void absentOrWildcardIfMatchIsUnconditional() {
+        //When
+        //Then
+        assertThat(CustomerETags.expectedVersion(7L, null)).isNull();
+        assertThat(CustomerETags.expectedVersion(7L, "*")).isNull();
+    }
+
+    @Test
+    void willThrowWhenIfMatchIsWeakOrForOtherCustomer() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerETags.expectedVersion(7L, "W/\"7-12\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> CustomerETags.expectedVersion(7L, "\"8-12\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> CustomerETags.expectedVersion(7L, "\"7-99999999999\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}
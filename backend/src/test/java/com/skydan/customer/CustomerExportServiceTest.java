@@ -0,0 +1,105 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skydan.AbstractTestcontainers;
+import com.skydan.exception.RequestValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CustomerExportServiceTest extends AbstractTestcontainers {
+
+    private static final String EMAIL_PATTERN = "customer-%@export.test";
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CustomerExportService underTest;
+
+    @BeforeEach
+    void setUp() {
+        // a fetch size smaller than the table makes the export page through the cursor
+        underTest = new CustomerExportService(
+                jdbcTemplate,
+                new CustomerViewRawMapper(),
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                objectMapper,
+                2
+        );
+        jdbcTemplate.update("""
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT 'Customer ' || i, 'customer-' || i || '@export.test', 'password', 20 + i, 'FEMALE'
+                FROM generate_series(1, 5) AS i
+                """);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM customer WHERE email LIKE ?", EMAIL_PATTERN);
+    }
+
+    @Test
+    void exportsOneJsonObjectPerLine() throws IOException {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        underTest.exportCustomers(CustomerExportFormat.NDJSON, out);
+
+        //Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        List<CustomerView> exported = lines.stream()
+                .map(this::read)
+                .filter(customer -> customer.email().endsWith("@export.test"))
+                .toList();
+        assertThat(exported)
+                .extracting(CustomerView::name)
+                .containsExactly("Customer 1", "Customer 2", "Customer 3", "Customer 4", "Customer 5");
+        assertThat(lines).hasSize(jdbcTemplate.queryForObject("SELECT count(*) FROM customer", Integer.class));
+        assertThat(lines).noneMatch(line -> line.contains("password"));
+    }
+
+    @Test
+    void exportsCsvWithHeader() throws IOException {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        underTest.exportCustomers(CustomerExportFormat.CSV, out);
+
+        //Then
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,name,email,age,gender,version");
+        assertThat(lines)
+                .filteredOn(line -> line.contains("@export.test"))
+                .hasSize(5)
+                .allSatisfy(line -> assertThat(line).matches("\\d+,\"?Customer \\d\"?,customer-\\d@export.test,2\\d,FEMALE,0"));
+    }
+
+    @Test
+    void parseRejectsUnknownFormats() {
+        assertThat(CustomerExportFormat.parse(null)).isEqualTo(CustomerExportFormat.NDJSON);
+        assertThat(CustomerExportFormat.parse("CSV")).isEqualTo(CustomerExportFormat.CSV);
+        assertThatThrownBy(() -> CustomerExportFormat.parse("xml"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("format must be one of csv, ndjson");
+    }
+
+    private CustomerView read(String line) {
+        try {
+            return objectMapper.readValue(line, CustomerView.class);
+        } catch (IOException e) {
+            throw new AssertionError("not a customer: " + line, e);
+        }
+    }
+}
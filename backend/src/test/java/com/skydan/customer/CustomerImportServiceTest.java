@@ -0,0 +1,208 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skydan.security.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.skydan.customer.CustomerImportStatus.CREATED;
+import static com.skydan.customer.CustomerImportStatus.DUPLICATE;
+import static com.skydan.customer.CustomerImportStatus.INVALID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerImportServiceTest {
+
+    @Mock private CustomerDao customerDao;
+    @Mock private PasswordHasher passwordHasher;
+    @Mock private CustomerOutbox customerOutbox;
+    @Mock private CustomerChangeFeed customerChangeFeed;
+    private CustomerImportService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerImportService(customerDao, passwordHasher, new CustomerDTOMapper(), customerOutbox,
+                customerChangeFeed, TransactionOperations.withoutTransaction(), new ObjectMapper());
+    }
+
+    @Test
+    void canImportJsonArray() throws IOException {
+        //Given
+        String body = """
+                [
+                  {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"},
+                  {"name": "Alex", "email": "alex@gmail.com", "password": "password", "age": 21, "gender": "MALE"}
+                ]
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of());
+        when(passwordHasher.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(p -> "hash").toList());
+        when(customerDao.insertCustomers(anyList())).thenReturn(new int[]{1, 1});
+
+        //When
+        CustomerImportReport actual = underTest.importCustomers(stream(body));
+
+        //Then
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.rows())
+                .extracting(CustomerImportResult::status)
+                .containsExactly(CREATED, CREATED);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Customer>> customersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDao).insertCustomers(customersCaptor.capture());
+        assertThat(customersCaptor.getValue())
+                .extracting(Customer::getEmail, Customer::getPassword)
+                .containsExactly(
+                        tuple("maria@gmail.com", "hash"),
+                        tuple("alex@gmail.com", "hash")
+                );
+    }
+
+    @Test
+    void canImportNdjson() throws IOException {
+        //Given
+        String body = """
+                {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}
+                {"name": "Alex", "email": "alex@gmail.com", "password": "password", "age": 21, "gender": "MALE"}
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of());
+        when(passwordHasher.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(p -> "hash").toList());
+        when(customerDao.insertCustomers(anyList())).thenReturn(new int[]{1, 1});
+
+        //When
+        CustomerImportReport actual = underTest.importCustomers(stream(body));
+
+        //Then
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.rows())
+                .extracting(CustomerImportResult::row)
+                .containsExactly(1, 2);
+    }
+
+    @Test
+    void reportsDuplicatesAndInvalidRows() throws IOException {
+        //Given
+        String body = """
+                {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}
+                {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}
+                {"name": "Alex", "email": "alex@gmail.com", "password": "password", "age": 21, "gender": "MALE"}
+                {"name": "Jamila", "email": "jamila@gmail.com", "password": "password", "age": 19, "gender": "FEMALE"}
+                {"name": "NoEmail", "password": "password", "age": 30, "gender": "MALE"}
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of("alex@gmail.com"));
+        when(passwordHasher.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(p -> "hash").toList());
+        // jamila was inserted concurrently after the lookup
+        when(customerDao.insertCustomers(anyList())).thenReturn(new int[]{1, 0});
+
+        //When
+        CustomerImportReport actual = underTest.importCustomers(stream(body));
+
+        //Then
+        assertThat(actual.created()).isEqualTo(1);
+        assertThat(actual.duplicates()).isEqualTo(3);
+        assertThat(actual.invalid()).isEqualTo(1);
+        assertThat(actual.rows())
+                .extracting(CustomerImportResult::row, CustomerImportResult::status, CustomerImportResult::message)
+                .containsExactly(
+                        tuple(1, CREATED, null),
+                        tuple(2, DUPLICATE, "email duplicated in import"),
+                        tuple(3, DUPLICATE, "email already taken"),
+                        tuple(4, DUPLICATE, "email already taken"),
+                        tuple(5, INVALID, "missing required fields")
+                );
+    }
+
+    @Test
+    void recordsOnlyInsertedCustomersInOutboxAndChangeFeed() throws IOException {
+        //Given
+        String body = """
+                {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}
+                {"name": "Jamila", "email": "jamila@gmail.com", "password": "password", "age": 19, "gender": "FEMALE"}
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of());
+        when(passwordHasher.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(p -> "hash").toList());
+        // jamila was inserted concurrently after the lookup
+        when(customerDao.insertCustomers(anyList())).thenAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.get(0).setId(7L);
+            return new int[]{1, 0};
+        });
+
+        //When
+        underTest.importCustomers(stream(body));
+
+        //Then
+        CustomerDTO maria = new CustomerDTO(
+                7L, "Maria", "maria@gmail.com", 18, "FEMALE", List.of("ROLE_USER"), "maria@gmail.com");
+        verify(customerOutbox).appendAll(CustomerChangeEvent.Type.CREATED, List.of(maria));
+        verify(customerChangeFeed).publish(CustomerChangeEvent.Type.CREATED, 7L, maria);
+        verifyNoMoreInteractions(customerChangeFeed);
+    }
+
+    @Test
+    void stopsAtMalformedRowAndKeepsEarlierRows() throws IOException {
+        //Given
+        String body = """
+                {"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}
+                {"name": "Alex", "email": 
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of());
+        when(passwordHasher.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(p -> "hash").toList());
+        when(customerDao.insertCustomers(anyList())).thenReturn(new int[]{1});
+
+        //When
+        CustomerImportReport actual = underTest.importCustomers(stream(body));
+
+        //Then
+        assertThat(actual.created()).isEqualTo(1);
+        assertThat(actual.invalid()).isEqualTo(1);
+        assertThat(actual.rows().get(1).row()).isEqualTo(2);
+        assertThat(actual.rows().get(1).message()).startsWith("malformed customer");
+    }
+
+    @Test
+    void willNotHashOrInsertWhenAllEmailsTaken() throws IOException {
+        //Given
+        String body = """
+                [{"name": "Maria", "email": "maria@gmail.com", "password": "password", "age": 18, "gender": "FEMALE"}]
+                """;
+        when(customerDao.selectExistingEmails(anyList())).thenReturn(List.of("maria@gmail.com"));
+
+        //When
+        CustomerImportReport actual = underTest.importCustomers(stream(body));
+
+        //Then
+        assertThat(actual.duplicates()).isEqualTo(1);
+        verify(passwordHasher, never()).encodeAll(anyList());
+        verify(customerDao, never()).insertCustomers(any());
+        verifyNoInteractions(customerOutbox, customerChangeFeed);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,12 +3,20 @@ import com.skydan.AbstractTestcontainers;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
@@ -19,7 +27,8 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
     void setUp() {
         underTest = new CustomerJDBCDataAccessService(
                 getJdbcTemplate(),
-                customerRawMapper
+                customerRawMapper,
+                new CustomerViewRawMapper()
         );
     }
 
@@ -43,6 +52,79 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isNotEmpty();
     }
 
+    @Test
+    void selectCustomers() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.insertCustomer(customer);
+
+        long id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        //When
+        List<CustomerView> actual = underTest.selectCustomers(id - 1, 1);
+
+        //Then
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0).id()).isEqualTo(id);
+        assertThat(underTest.selectCustomers(id, 10))
+                .allSatisfy(c -> assertThat(c.id()).isGreaterThan(id));
+    }
+
+    @Test
+    void searchCustomersFiltersAndPagesInSortOrder() {
+        //Given
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        for (int age : new int[]{25, 40, 25, 60}) {
+            underTest.insertCustomer(new Customer(
+                    "Foo " + token.toUpperCase() + " " + age,
+                    "search-" + age + "-" + UUID.randomUUID() + "@gmail.com",
+                    "password",
+                    age,
+                    age == 60 ? "MALE" : "FEMALE"));
+        }
+        CustomerSearch search = new CustomerSearch(token, null, 20, 50, "FEMALE", CustomerSort.parse("-age"));
+
+        //When
+        List<CustomerView> firstPage = underTest.searchCustomers(search, 2);
+        CustomerView last = firstPage.get(firstPage.size() - 1);
+        List<CustomerView> secondPage = underTest.searchCustomers(search.after(last.id(), last.age()), 2);
+
+        //Then
+        assertThat(firstPage).extracting(CustomerView::age).containsExactly(40, 25);
+        assertThat(secondPage).extracting(CustomerView::age).containsExactly(25);
+        assertThat(secondPage.get(0).id()).isLessThan(last.id());
+    }
+
+    @Test
+    void searchCustomersTreatsLikeWildcardsLiterally() {
+        //Given
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        underTest.insertCustomer(new Customer(
+                "Foo", token + "_x@gmail.com", "password", 20, "MALE"));
+        underTest.insertCustomer(new Customer(
+                "Foo", token + "ax@gmail.com", "password", 20, "MALE"));
+
+        //When
+        List<CustomerView> actual = underTest.searchCustomers(
+                new CustomerSearch(null, token.toUpperCase() + "_", null, null, null, null), 10);
+
+        //Then
+        assertThat(actual).extracting(CustomerView::email).containsExactly(token + "_x@gmail.com");
+    }
+
     @Test
     void selectCustomerById() {
         //Given
@@ -57,7 +139,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -77,10 +159,31 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         });
     }
 
+    @Test
+    void selectCustomerViewById() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+        underTest.insertCustomer(customer);
+
+        //When
+        Optional<CustomerView> actual = underTest.selectCustomerViewById(customer.getId());
+
+        //Then
+        assertThat(actual).contains(new CustomerView(customer.getId(), "Foo", email, 20, "MALE", 0));
+        assertThat(underTest.selectCustomerViewById(-1L)).isEmpty();
+    }
+
     @Test
     void willReturnEmptyWhenSelectCustomerById() {
         //Given
-        int id = -1;
+        long id = -1;
 
         //When
         var actual = underTest.selectCustomerById(id);
@@ -111,6 +214,73 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         assertThat(actual).isTrue();
     }
 
+    @Test
+    void insertCustomerReturnsFalseWhenEmailTaken() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer existing = new Customer("Foo", email, "password", 20, "MALE");
+        boolean first = underTest.insertCustomer(existing);
+        Customer duplicate = new Customer("Bar", email, "password", 21, "FEMALE");
+
+        //When
+        boolean actual = underTest.insertCustomer(duplicate);
+
+        //Then
+        assertThat(first).isTrue();
+        assertThat(existing.getId()).isNotNull();
+        assertThat(existing.getVersion()).isZero();
+        assertThat(actual).isFalse();
+        assertThat(duplicate.getId()).isNull();
+    }
+
+    @Test
+    void insertCustomersSkipsTakenEmails() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        String otherEmail = "example@gmail.com" + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer("Foo", email, "password", 20, "MALE"));
+
+        Customer taken = new Customer("Foo", email, "password", 20, "MALE");
+        Customer free = new Customer("Bar", otherEmail, "password", 21, "FEMALE");
+
+        //When
+        int[] actual = underTest.insertCustomers(List.of(taken, free));
+
+        //Then
+        assertThat(actual).containsExactly(0, 1);
+        assertThat(taken.getId()).isNull();
+        assertThat(underTest.selectCustomerById(free.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo(otherEmail));
+        assertThat(free.getVersion()).isZero();
+        assertThat(underTest.selectExistingEmails(List.of(email, otherEmail, "missing@gmail.com")))
+                .containsExactlyInAnyOrder(email, otherEmail);
+    }
+
+    @Test
+    void insertCustomersCreditsARepeatedEmailToItsFirstCopy() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        String otherEmail = "example@gmail.com" + "-" + UUID.randomUUID();
+
+        Customer first = new Customer("Foo", email, "password", 20, "MALE");
+        Customer other = new Customer("Bar", otherEmail, "password", 21, "FEMALE");
+        Customer repeated = new Customer("Baz", email, "password", 22, "FEMALE");
+
+        //When
+        int[] actual = underTest.insertCustomers(List.of(first, other, repeated));
+
+        //Then
+        assertThat(actual).containsExactly(1, 1, 0);
+        assertThat(repeated.getId()).isNull();
+        assertThat(underTest.selectCustomerById(first.getId()))
+                .hasValueSatisfying(c -> {
+                    assertThat(c.getName()).isEqualTo("Foo");
+                    assertThat(c.getAge()).isEqualTo(20);
+                });
+        assertThat(underTest.selectCustomerById(other.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo(otherEmail));
+    }
+
     @Test
     void existsPersonWithEmailReturnsFalseWhenDoesNotExists() {
         //Given
@@ -137,7 +307,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -145,13 +315,26 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
                 .orElseThrow();
 
         //When
-        underTest.deleteCustomerById(id);
+        Optional<Customer> deleted = underTest.deleteCustomerById(id);
 
         //Then
+        assertThat(deleted).hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo(email));
         Optional<Customer> actual = underTest.selectCustomerById(id);
         assertThat(actual).isNotPresent();
     }
 
+    @Test
+    void deleteCustomerByIdReturnsEmptyWhenIdNotPresent() {
+        //Given
+        long id = -1;
+
+        //When
+        Optional<Customer> actual = underTest.deleteCustomerById(id);
+
+        //Then
+        assertThat(actual).isNotPresent();
+    }
+
     @Test
     void existsCustomerWithId() {
         //Given
@@ -166,7 +349,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -183,7 +366,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
     @Test
     void existsCustomerWithIdWillReturnFalseWhenIdNotPresent() {
         //Given
-        int id = -1;
+        long id = -1;
 
         //When
         var actual = underTest.existsCustomerWithId(id);
@@ -206,7 +389,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -234,6 +417,31 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
     }
 
+    @Test
+    void updateWritesOnlyTheGivenColumns() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer("Foo", email, "password", 20, "MALE");
+        underTest.insertCustomer(customer);
+
+        JdbcTemplate jdbcTemplate = spy(getJdbcTemplate());
+        underTest = new CustomerJDBCDataAccessService(jdbcTemplate, customerRawMapper, new CustomerViewRawMapper());
+
+        Customer update = new Customer();
+        update.setId(customer.getId());
+        update.setVersion(customer.getVersion());
+        update.setName("foo");
+
+        //When
+        underTest.updateCustomer(update);
+
+        //Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), eq(customerRawMapper), (Object[]) any());
+        assertThat(sql.getValue()).startsWith(
+                "UPDATE customer SET name = ?, version = version + 1 WHERE id = ? AND version = ?");
+    }
+
     @Test
     void updateCustomerEmail() {
         // Given
@@ -247,7 +455,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -261,9 +469,14 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         update.setId(id);
         update.setEmail(newEmail);
 
-        underTest.updateCustomer(update);
+        Optional<UpdatedCustomer> updated = underTest.updateCustomer(update);
 
         // Then
+        assertThat(updated).hasValueSatisfying(u -> {
+            assertThat(u.customer().getEmail()).isEqualTo(newEmail);
+            assertThat(u.previousEmail()).isEqualTo(email);
+        });
+
         Optional<Customer> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValueSatisfying(c -> {
@@ -287,7 +500,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -328,7 +541,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -366,7 +579,7 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -390,4 +603,137 @@ public class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
             assertThat(c.getAge()).isEqualTo(customer.getAge());
         });
     }
+
+    @Test
+    void updateWithCurrentValuesWritesNothing() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.insertCustomer(customer);
+
+        Customer existing = underTest.selectUserByEmail(email).orElseThrow();
+
+        //When
+        Customer update = new Customer();
+        update.setId(existing.getId());
+        update.setVersion(existing.getVersion());
+        update.setName("Foo");
+        update.setAge(20);
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(updated -> {
+            assertThat(updated.changed()).isFalse();
+            assertThat(updated.customer().getVersion()).isEqualTo(existing.getVersion());
+        });
+        assertThat(underTest.selectCustomerById(existing.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getVersion()).isEqualTo(existing.getVersion()));
+    }
+
+    @Test
+    void updateWithCurrentValuesButStaleVersionIsRejected() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.insertCustomer(customer);
+
+        Customer existing = underTest.selectUserByEmail(email).orElseThrow();
+
+        //When
+        Customer update = new Customer();
+        update.setId(existing.getId());
+        update.setVersion(existing.getVersion() + 1);
+        update.setName("Foo");
+
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(update))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void updateCustomerReturnsUpdatedRowWithNextVersion() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.insertCustomer(customer);
+
+        Customer existing = underTest.selectUserByEmail(email).orElseThrow();
+
+        //When
+        existing.setName("foo");
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(existing);
+
+        //Then
+        assertThat(actual).isPresent().hasValueSatisfying(updated -> {
+            Customer c = updated.customer();
+            assertThat(c.getId()).isEqualTo(existing.getId());
+            assertThat(c.getName()).isEqualTo("foo");
+            assertThat(c.getVersion()).isEqualTo(existing.getVersion() + 1);
+            assertThat(updated.previousEmail()).isEqualTo(email);
+        });
+    }
+
+    @Test
+    void versionedUpdateOfMissingCustomerIsEmpty() {
+        //Given
+        Customer update = new Customer();
+        update.setId(-1L);
+        update.setVersion(0);
+        update.setName("foo");
+
+        //When
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void willThrowWhenUpdatingStaleVersion() {
+        //Given
+        String email = "example@gmail.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.insertCustomer(customer);
+
+        Customer first = underTest.selectUserByEmail(email).orElseThrow();
+        Customer second = underTest.selectUserByEmail(email).orElseThrow();
+
+        first.setName("foo");
+        underTest.updateCustomer(first);
+
+        //When
+        second.setName("bar");
+
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(second))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
 }
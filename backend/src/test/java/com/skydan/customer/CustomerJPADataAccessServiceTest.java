@@ -1,23 +1,40 @@
 package com.skydan.customer;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CustomerJPADataAccessServiceTest {
 
     private CustomerJPADataAccessService underTest;
     private AutoCloseable autoCloseable;
     @Mock private CustomerRepository customerRepository;
+    @Mock private EntityManager entityManager;
 
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerJPADataAccessService(customerRepository);
+        underTest = new CustomerJPADataAccessService(
+                customerRepository, entityManager, TransactionOperations.withoutTransaction(), 2);
     }
 
     @AfterEach
@@ -35,10 +52,48 @@ public class CustomerJPADataAccessServiceTest {
                 .findAll();
     }
 
+    @Test
+    void selectCustomers() {
+        //Given
+        long afterId = 10;
+        int limit = 20;
+
+        //When
+        underTest.selectCustomers(afterId, limit);
+
+        //Then
+        verify(customerRepository)
+                .findByIdGreaterThan(afterId, PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    @Test
+    void searchCustomers() {
+        //Given
+        CustomerSearch search = new CustomerSearch("mar", null, null, null, null, null);
+
+        //When
+        underTest.searchCustomers(search, 20);
+
+        //Then
+        verify(customerRepository).search(search, 20);
+    }
+
+    @Test
+    void selectCustomerViewById() {
+        //Given
+        long id = 1;
+
+        //When
+        underTest.selectCustomerViewById(id);
+
+        //Then
+        verify(customerRepository).findViewById(id);
+    }
+
     @Test
     void selectCustomerById() {
         //Given
-        int id = 1;
+        long id = 1;
 
         //When
         underTest.selectCustomerById(id);
@@ -50,7 +105,7 @@ public class CustomerJPADataAccessServiceTest {
     @Test
     void insertCustomer() {
         //Given
-        Customer customer = new Customer(1, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        Customer customer = new Customer(1L, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
 
         //When
         underTest.insertCustomer(customer);
@@ -59,6 +114,62 @@ public class CustomerJPADataAccessServiceTest {
         verify(customerRepository).save(customer);
     }
 
+    @Test
+    void insertCustomers() {
+        //Given
+        List<Customer> customers = List.of(
+                new Customer("Maria", "maria@gmail.com", "password", 18, "FEMALE"),
+                new Customer("Alex", "alex@gmail.com", "password", 21, "MALE"),
+                new Customer("Jamila", "jamila@gmail.com", "password", 19, "FEMALE")
+        );
+
+        //When
+        int[] actual = underTest.insertCustomers(customers);
+
+        //Then
+        InOrder inOrder = inOrder(customerRepository, entityManager);
+        inOrder.verify(customerRepository).saveAll(customers.subList(0, 2));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(customerRepository).saveAll(customers.subList(2, 3));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+        assertThat(actual).containsExactly(1, 1, 1);
+    }
+
+    @Test
+    void insertCustomersSkipsTakenAndRepeatedEmails() {
+        //Given
+        Customer maria = new Customer("Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        Customer alex = new Customer("Alex", "alex@gmail.com", "password", 21, "MALE");
+        Customer mariaAgain = new Customer("Maria", "maria@gmail.com", "password", 19, "FEMALE");
+        when(customerRepository.findEmailsIn(List.of("maria@gmail.com", "alex@gmail.com")))
+                .thenReturn(List.of("alex@gmail.com"));
+
+        //When
+        int[] actual = underTest.insertCustomers(List.of(maria, alex, mariaAgain));
+
+        //Then
+        InOrder inOrder = inOrder(customerRepository, entityManager);
+        inOrder.verify(customerRepository).saveAll(List.of(maria));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(customerRepository).findEmailsIn(List.of("maria@gmail.com"));
+        inOrder.verify(customerRepository).saveAll(List.of());
+        assertThat(actual).containsExactly(1, 0, 0);
+    }
+
+    @Test
+    void selectExistingEmails() {
+        //Given
+        List<String> emails = List.of("maria@gmail.com", "alex@gmail.com");
+
+        //When
+        underTest.selectExistingEmails(emails);
+
+        //Then
+        verify(customerRepository).findEmailsIn(emails);
+    }
+
     @Test
     void existsCustomerWithEmail() {
         //Given
@@ -74,19 +185,22 @@ public class CustomerJPADataAccessServiceTest {
     @Test
     void deleteCustomerById() {
         //Given
-        int id = 1;
+        long id = 1;
+        Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        when(customerRepository.deleteReturningById(id)).thenReturn(Optional.of(customer));
 
         //When
-        underTest.deleteCustomerById(id);
+        Optional<Customer> actual = underTest.deleteCustomerById(id);
 
         //Then
-        verify(customerRepository).deleteById(id);
+        assertThat(actual).contains(customer);
+        verify(customerRepository, never()).findById(id);
     }
 
     @Test
     void existsCustomerWithId() {
         //Given
-        int id = 1;
+        long id = 1;
 
         //When
         underTest.existsCustomerWithId(id);
@@ -96,14 +210,86 @@ public class CustomerJPADataAccessServiceTest {
     }
 
     @Test
-    void updateCustomer() {
+    void updateCustomerChangesOnlyGivenFields() {
         //Given
-        Customer customer = new Customer(1, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        Customer stored = new Customer(1L, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        stored.setVersion(2);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setVersion(2);
+        update.setName("Marianna");
 
         //When
-        underTest.updateCustomer(customer);
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
 
         //Then
-        verify(customerRepository).save(customer);
+        assertThat(actual).hasValueSatisfying(updated -> {
+            Customer c = updated.customer();
+            assertThat(c.getName()).isEqualTo("Marianna");
+            assertThat(c.getEmail()).isEqualTo("maria@gmail.com");
+            assertThat(c.getPassword()).isEqualTo("password");
+            assertThat(c.getAge()).isEqualTo(18);
+            assertThat(c.getGender()).isEqualTo("FEMALE");
+            assertThat(updated.previousEmail()).isEqualTo("maria@gmail.com");
+        });
+        verify(entityManager).flush();
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void updateCustomerWithCurrentValuesDoesNotFlush() {
+        //Given
+        Customer stored = new Customer(1L, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        stored.setVersion(2);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setVersion(2);
+        update.setName("Maria");
+        update.setAge(18);
+
+        //When
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(updated -> assertThat(updated.changed()).isFalse());
+        verify(entityManager, never()).flush();
+    }
+
+    @Test
+    void updateCustomerRejectsStaleVersion() {
+        //Given
+        Customer stored = new Customer(1L, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        stored.setVersion(3);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setVersion(2);
+        update.setName("Marianna");
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(update))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(stored.getName()).isEqualTo("Maria");
+    }
+
+    @Test
+    void updateMissingCustomer() {
+        //Given
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setName("Marianna");
+        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+
+        //When
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).isEmpty();
     }
 }
@@ -0,0 +1,212 @@
+package com.skydan.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerListDataAccessServiceTest {
+
+    private CustomerListDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerListDataAccessService();
+    }
+
+    @Test
+    void insertCustomerAssignsIdAndVersion() {
+        //Given
+        Customer customer = new Customer("Foo", "foo@gmail.com", "password", 20, "MALE");
+
+        //When
+        boolean actual = underTest.insertCustomer(customer);
+
+        //Then
+        assertThat(actual).isTrue();
+        assertThat(customer.getId()).isEqualTo(3);
+        assertThat(underTest.selectUserByEmail("foo@gmail.com")).hasValueSatisfying(c -> {
+            assertThat(c.getId()).isEqualTo(3);
+            assertThat(c.getVersion()).isZero();
+        });
+    }
+
+    @Test
+    void insertCustomerReturnsFalseWhenEmailTaken() {
+        //When
+        boolean actual = underTest.insertCustomer(
+                new Customer("Foo", "alex@gmail.com", "password", 20, "MALE"));
+
+        //Then
+        assertThat(actual).isFalse();
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+    }
+
+    @Test
+    void selectCustomersPagesInIdOrder() {
+        //Given
+        underTest.insertCustomer(new Customer("Foo", "foo@gmail.com", "password", 20, "MALE"));
+
+        //When
+        List<CustomerView> actual = underTest.selectCustomers(1L, 10);
+
+        //Then
+        assertThat(actual).extracting(CustomerView::id).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void searchCustomersFiltersAndPagesInSortOrder() {
+        //Given
+        underTest.insertCustomer(new Customer("Alexa", "alexa@gmail.com", "password", 30, "FEMALE"));
+        underTest.insertCustomer(new Customer("Malex", "malex@yahoo.com", "password", 21, "MALE"));
+        CustomerSearch search = new CustomerSearch("ALEX", null, 20, null, null, CustomerSort.parse("-age"));
+
+        //When
+        List<CustomerView> firstPage = underTest.searchCustomers(search, 2);
+        List<CustomerView> secondPage = underTest.searchCustomers(search.after(4L, 21), 2);
+
+        //Then
+        assertThat(firstPage).extracting(CustomerView::name).containsExactly("Alexa", "Malex");
+        assertThat(secondPage).extracting(CustomerView::name).containsExactly("Alex");
+        assertThat(underTest.searchCustomers(new CustomerSearch(null, "ALEX", null, null, null, null), 10))
+                .extracting(CustomerView::id).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void returnedCustomersAreDetachedFromTheStore() {
+        //Given
+        Customer alex = underTest.selectCustomerById(1L).orElseThrow();
+
+        //When
+        alex.setEmail("changed@gmail.com");
+
+        //Then
+        assertThat(underTest.existsCustomerWithEmail("changed@gmail.com")).isFalse();
+        assertThat(underTest.selectCustomerById(1L)).hasValueSatisfying(c ->
+                assertThat(c.getEmail()).isEqualTo("alex@gmail.com"));
+    }
+
+    @Test
+    void updateCustomerMovesEmailIndexAndBumpsVersion() {
+        //Given
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setEmail("alexander@gmail.com");
+
+        //When
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(updated -> {
+            assertThat(updated.customer().getName()).isEqualTo("Alex");
+            assertThat(updated.customer().getEmail()).isEqualTo("alexander@gmail.com");
+            assertThat(updated.customer().getVersion()).isEqualTo(1);
+            assertThat(updated.previousEmail()).isEqualTo("alex@gmail.com");
+        });
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.selectUserByEmail("alexander@gmail.com")).isPresent();
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+    }
+
+    @Test
+    void updateWithCurrentValuesKeepsVersion() {
+        //Given
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setName("Alex");
+        update.setEmail("alex@gmail.com");
+
+        //When
+        Optional<UpdatedCustomer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(updated -> {
+            assertThat(updated.changed()).isFalse();
+            assertThat(updated.customer().getVersion()).isEqualTo(0);
+        });
+        assertThat(underTest.selectUserByEmail("alex@gmail.com")).isPresent();
+    }
+
+    @Test
+    void willThrowWhenUpdatingToTakenEmail() {
+        //Given
+        Customer update = new Customer();
+        update.setId(1L);
+        update.setEmail("jamila@gmail.com");
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(update))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(underTest.selectUserByEmail("jamila@gmail.com")).hasValueSatisfying(c ->
+                assertThat(c.getId()).isEqualTo(2));
+    }
+
+    @Test
+    void willThrowWhenUpdatingStaleVersion() {
+        //Given
+        Customer first = underTest.selectCustomerById(1L).orElseThrow();
+        Customer second = underTest.selectCustomerById(1L).orElseThrow();
+        first.setName("foo");
+        underTest.updateCustomer(first);
+
+        //When
+        second.setEmail("stale@gmail.com");
+
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(second))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(underTest.existsCustomerWithEmail("stale@gmail.com")).isFalse();
+    }
+
+    @Test
+    void deleteCustomerByIdReleasesEmail() {
+        //When
+        Optional<Customer> actual = underTest.deleteCustomerById(1L);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo("alex@gmail.com"));
+        assertThat(underTest.existsCustomerWithId(1L)).isFalse();
+        assertThat(underTest.insertCustomer(
+                new Customer("Alex", "alex@gmail.com", "password", 21, "MALE"))).isTrue();
+    }
+
+    @Test
+    void concurrentInsertsOfSameEmailLetExactlyOneWin() throws Exception {
+        //Given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //When
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(IntStream.range(0, threads * 50)
+                    .<Callable<Boolean>>mapToObj(i -> () -> underTest.insertCustomer(
+                            new Customer("Foo", "foo" + (i % 50) + "@gmail.com", "password", 20, "MALE")))
+                    .toList());
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        long inserted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                inserted++;
+            }
+        }
+        assertThat(inserted).isEqualTo(50);
+        assertThat(underTest.selectAllCustomers()).hasSize(52);
+    }
+}
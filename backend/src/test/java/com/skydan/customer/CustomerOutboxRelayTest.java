@@ -0,0 +1,174 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skydan.AbstractTestcontainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class CustomerOutboxRelayTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CustomerOutbox customerOutbox;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM customer_outbox");
+        customerOutbox = new CustomerOutbox(jdbcTemplate, new ObjectMapper(), Optional.of(new InMemoryCustomerOutboxSink()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM customer_outbox");
+    }
+
+    @Test
+    void relayBatchDeliversInWriteOrderAndPrunesDeliveredRows() {
+        //Given
+        InMemoryCustomerOutboxSink sink = new InMemoryCustomerOutboxSink();
+        CustomerOutboxRelay underTest = relay(sink, 2);
+        CustomerDTO customer = new CustomerDTO(7L, "Alex", "alex@gmail.com", 21, "MALE", List.of("ROLE_USER"), "alex@gmail.com");
+        transactionTemplate.executeWithoutResult(status -> {
+            customerOutbox.append(CustomerChangeEvent.Type.CREATED, 7L, customer);
+            customerOutbox.append(CustomerChangeEvent.Type.UPDATED, 7L, customer);
+            customerOutbox.append(CustomerChangeEvent.Type.DELETED, 7L, null);
+        });
+
+        //When
+        int first = underTest.relayBatch();
+        int second = underTest.relayBatch();
+
+        //Then
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+        assertThat(sink.messages())
+                .extracting(CustomerOutboxMessage::type)
+                .containsExactly(
+                        CustomerChangeEvent.Type.CREATED,
+                        CustomerChangeEvent.Type.UPDATED,
+                        CustomerChangeEvent.Type.DELETED);
+        assertThat(sink.messages().get(0).customer()).contains("\"Alex\"");
+        assertThat(sink.messages().get(2).customer()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM customer_outbox", Integer.class)).isZero();
+        assertThat(meterRegistry.counter("customer.outbox.relayed").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("customer.outbox.lag").count()).isEqualTo(3);
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoOutboxRow() {
+        //Given
+        InMemoryCustomerOutboxSink sink = new InMemoryCustomerOutboxSink();
+        CustomerOutboxRelay underTest = relay(sink, 10);
+
+        //When
+        transactionTemplate.executeWithoutResult(status -> {
+            customerOutbox.append(CustomerChangeEvent.Type.DELETED, 7L, null);
+            status.setRollbackOnly();
+        });
+        underTest.relayBatch();
+
+        //Then
+        assertThat(sink.messages()).isEmpty();
+    }
+
+    @Test
+    void failedPublishKeepsTheBatchForTheNextPollAndBacksOff() {
+        //Given
+        InMemoryCustomerOutboxSink sink = new InMemoryCustomerOutboxSink();
+        boolean[] failing = {true};
+        CustomerOutboxRelay underTest = relay(messages -> {
+            if (failing[0]) {
+                throw new IllegalStateException("sink down");
+            }
+            sink.publish(messages);
+        }, 10);
+        transactionTemplate.executeWithoutResult(status ->
+                customerOutbox.append(CustomerChangeEvent.Type.DELETED, 7L, null));
+
+        //When
+        underTest.poll();
+        underTest.poll();
+        Duration backoff = underTest.nextDelay();
+        failing[0] = false;
+        underTest.poll();
+
+        //Then
+        assertThat(sink.messages()).hasSize(1);
+        assertThat(meterRegistry.get("customer.outbox.relay.failures")
+                .tag("exception", "IllegalStateException")
+                .counter()
+                .count()).isEqualTo(2);
+        assertThat(backoff).isEqualTo(Duration.ofHours(2));
+        assertThat(underTest.nextDelay()).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void appendAllRecordsOneRowPerCustomerInListOrder() {
+        //Given
+        InMemoryCustomerOutboxSink sink = new InMemoryCustomerOutboxSink();
+        CustomerOutboxRelay underTest = relay(sink, 10);
+        CustomerDTO alex = new CustomerDTO(7L, "Alex", "alex@gmail.com", 21, "MALE", List.of("ROLE_USER"), "alex@gmail.com");
+        CustomerDTO maria = new CustomerDTO(8L, "Maria", "maria@gmail.com", 18, "FEMALE", List.of("ROLE_USER"), "maria@gmail.com");
+
+        //When
+        transactionTemplate.executeWithoutResult(status ->
+                customerOutbox.appendAll(CustomerChangeEvent.Type.CREATED, List.of(alex, maria)));
+        underTest.relayBatch();
+
+        //Then
+        assertThat(sink.messages())
+                .extracting(CustomerOutboxMessage::type, CustomerOutboxMessage::customerId)
+                .containsExactly(
+                        tuple(CustomerChangeEvent.Type.CREATED, 7L),
+                        tuple(CustomerChangeEvent.Type.CREATED, 8L));
+        assertThat(sink.messages().get(1).customer()).contains("\"Maria\"");
+    }
+
+    @Test
+    void appendWithoutSinkWritesNoRow() {
+        //Given
+        CustomerOutbox withoutSink = new CustomerOutbox(jdbcTemplate, new ObjectMapper(), Optional.empty());
+        CustomerDTO alex = new CustomerDTO(7L, "Alex", "alex@gmail.com", 21, "MALE", List.of("ROLE_USER"), "alex@gmail.com");
+
+        //When
+        transactionTemplate.executeWithoutResult(status -> {
+            withoutSink.append(CustomerChangeEvent.Type.DELETED, 7L, null);
+            withoutSink.appendAll(CustomerChangeEvent.Type.CREATED, List.of(alex));
+        });
+
+        //Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM customer_outbox", Integer.class)).isZero();
+    }
+
+    @Test
+    void appendOutsideTransactionIsRejected() {
+        //When
+        //Then
+        assertThatThrownBy(() -> customerOutbox.append(CustomerChangeEvent.Type.DELETED, 7L, null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private CustomerOutboxRelay relay(CustomerOutboxSink sink, int batchSize) {
+        // the background poll never fires during a test; batches are driven by hand
+        CustomerOutboxRelay relay = new CustomerOutboxRelay(
+                jdbcTemplate, transactionTemplate, Optional.of(sink), batchSize,
+                Duration.ofHours(1), Duration.ofHours(4), meterRegistry);
+        relay.shutdown();
+        return relay;
+    }
+}
@@ -17,7 +17,7 @@ public class CustomerRawMapperTest {
         //Given
         CustomerRawMapper customerRawMapper = new CustomerRawMapper();
         ResultSet resultSet = mock(ResultSet.class);
-        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getLong("id")).thenReturn(1L);
         when(resultSet.getString("name")).thenReturn("Maria");
         when(resultSet.getString("email")).thenReturn("maria@gmail.com");
         when(resultSet.getInt("age")).thenReturn(19);
@@ -28,7 +28,7 @@ public class CustomerRawMapperTest {
 
         //Then
         Customer expected = new Customer(
-                1, "Maria", "maria@gmail.com", "password", 19, "FEMALE"
+                1L, "Maria", "maria@gmail.com", "password", 19, "FEMALE"
         );
         assertThat(actual).isEqualTo(expected);
     }
@@ -69,7 +69,7 @@ public class CustomerRepositoryTest extends AbstractTestcontainers {
 
         underTest.save(customer);
 
-        int id = underTest.findAll()
+        long id = underTest.findAll()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -86,7 +86,7 @@ public class CustomerRepositoryTest extends AbstractTestcontainers {
     @Test
     void existsCustomerByIdFailsWhenIdDoesNotExist() {
         //Given
-        int id = -1;
+        long id = -1;
 
         //When
         var actual = underTest.existsCustomerById(id);
@@ -94,4 +94,30 @@ public class CustomerRepositoryTest extends AbstractTestcontainers {
         //Then
         assertThat(actual).isFalse();
     }
+
+    @Test
+    void deleteReturningById() {
+        //Given
+        String email = "example@skydan.com" + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                "Foo",
+                email,
+                "password",
+                20,
+                "MALE"
+        );
+
+        underTest.saveAndFlush(customer);
+
+        //When
+        var actual = underTest.deleteReturningById(customer.getId());
+
+        //Then
+        assertThat(actual).hasValueSatisfying(c -> {
+            assertThat(c.getId()).isEqualTo(customer.getId());
+            assertThat(c.getEmail()).isEqualTo(email);
+        });
+        assertThat(underTest.existsCustomerById(customer.getId())).isFalse();
+        assertThat(underTest.deleteReturningById(customer.getId())).isEmpty();
+    }
 }
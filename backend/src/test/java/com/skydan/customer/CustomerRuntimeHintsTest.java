@@ -0,0 +1,29 @@
+package com.skydan.customer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection;
+
+public class CustomerRuntimeHintsTest {
+
+    @Test
+    void registersEntityProjectionAndJsonTypes() {
+        //Given
+        RuntimeHints hints = new RuntimeHints();
+
+        //When
+        new CustomerRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //Then
+        assertThat(reflection().onType(Customer.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(reflection().onType(CustomerView.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(reflection().onMethod(CustomerOutboxMessage.class, "customer")).accepts(hints);
+        assertThat(reflection().onMethod(CustomerChangeEvent.class, "offset")).accepts(hints);
+    }
+}
@@ -0,0 +1,105 @@
+package com.skydan.customer;
+
+import com.skydan.AbstractTestcontainers;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans of the queries {@link CustomerJDBCDataAccessService#searchCustomers} generates against a
+ * million rows, so a query change that stops using the V4 indexes fails here rather than in production.
+ */
+public class CustomerSearchIndexIntegrationTest extends AbstractTestcontainers {
+
+    private static final int ROWS = 1_000_000;
+
+    private final ExplainingJdbcTemplate explainingJdbcTemplate = new ExplainingJdbcTemplate();
+    private final CustomerJDBCDataAccessService underTest =
+            new CustomerJDBCDataAccessService(explainingJdbcTemplate, new CustomerRawMapper(), new CustomerViewRawMapper());
+
+    @BeforeAll
+    static void insertCustomers() {
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        jdbcTemplate.update("""
+                INSERT INTO customer(name, email, password, age, gender)
+                SELECT 'Customer ' || md5(g::text), 'customer-' || g || '@explain.test', 'password',
+                       18 + g % 70, CASE WHEN g % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END
+                FROM generate_series(1, ?) g
+                """, ROWS);
+        jdbcTemplate.execute("VACUUM ANALYZE customer");
+    }
+
+    @AfterAll
+    static void deleteCustomers() {
+        getJdbcTemplate().update("DELETE FROM customer WHERE email LIKE 'customer-%@explain.test'");
+    }
+
+    @Test
+    void genderAndAgeRangeSeekTheCompositeIndexInSortOrder() {
+        //When
+        String plan = explain(new CustomerSearch(null, null, 30, 40, "FEMALE", CustomerSort.parse("age")));
+
+        //Then
+        assertThat(plan).contains("customer_gender_age_id_idx").doesNotContain("Seq Scan").doesNotContain("Sort");
+    }
+
+    @Test
+    void nameSubstringUsesTrigramIndex() {
+        //When
+        String plan = explain(new CustomerSearch("c4ca42", null, null, null, null, null));
+
+        //Then
+        assertThat(plan).contains("customer_name_trgm_idx").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void emailPrefixUsesCaseInsensitiveIndex() {
+        //When
+        String plan = explain(new CustomerSearch(null, "CUSTOMER-12345", null, null, null, null));
+
+        //Then
+        assertThat(plan).contains("customer_email_lower_idx").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void laterPagesSeekFromTheCursorWithoutSorting() {
+        //When
+        String byName = explain(new CustomerSearch(null, null, null, null, null, CustomerSort.parse("name"))
+                .after(500_000L, "Customer 8"));
+        String byAgeDescending = explain(new CustomerSearch(null, null, null, null, null, CustomerSort.parse("-age"))
+                .after(500_000L, 50));
+
+        //Then
+        assertThat(byName).contains("Index Scan using customer_name_id_idx").doesNotContain("Sort");
+        assertThat(byAgeDescending).contains("Index Scan Backward using customer_age_id_idx").doesNotContain("Sort");
+    }
+
+    private String explain(CustomerSearch search) {
+        underTest.searchCustomers(search, CustomerCursor.DEFAULT_PAGE_SIZE + 1);
+        return explainingJdbcTemplate.plan;
+    }
+
+    /**
+     * Explains the row query instead of running it.
+     */
+    private static class ExplainingJdbcTemplate extends JdbcTemplate {
+
+        private String plan;
+
+        ExplainingJdbcTemplate() {
+            super(getJdbcTemplate().getDataSource());
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            plan = String.join("\n", super.query("EXPLAIN " + sql, (rs, rowNum) -> rs.getString(1), args));
+            return List.of();
+        }
+    }
+}
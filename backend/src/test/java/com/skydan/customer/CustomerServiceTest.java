@@ -1,16 +1,23 @@
 package com.skydan.customer;
 
 import com.skydan.exception.DuplicateResourceException;
+import com.skydan.exception.PreconditionFailedException;
 import com.skydan.exception.RequestValidationException;
 import com.skydan.exception.ResourceNotFoundException;
+import com.skydan.jwt.TokenDenyList;
+import com.skydan.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -23,45 +30,204 @@ public class CustomerServiceTest {
 
     @Mock private CustomerDao customerDao;
     private CustomerService underTest;
-    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private PasswordHasher passwordHasher;
+    @Mock private TokenDenyList tokenDenyList;
+    @Mock private CustomerUserDetailsService customerUserDetailsService;
+    @Mock private CustomerChangeFeed customerChangeFeed;
+    @Mock private CustomerOutbox customerOutbox;
     private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDao, customerDTOMapper, passwordEncoder);
+        underTest = new CustomerService(
+                customerDao, customerDTOMapper, passwordHasher, tokenDenyList, customerUserDetailsService, customerChangeFeed,
+                customerOutbox, TransactionOperations.withoutTransaction());
     }
 
     @Test
-    void getAllCustomers() {
+    void getCustomers() {
         //When
-        underTest.getAllCustomers();
+        underTest.getCustomers(null, null);
 
         //Then
-        verify(customerDao).selectAllCustomers();
+        verify(customerDao).selectCustomers(0L, CustomerCursor.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getCustomersReturnsCursorWhenMoreCustomersExist() {
+        //Given
+        CustomerView maria = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 0);
+        CustomerView alex = new CustomerView(2L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomers(0L, 2)).thenReturn(List.of(maria, alex));
+
+        //When
+        CustomerPage firstPage = underTest.getCustomers(null, 1);
+
+        //Then
+        assertThat(firstPage.customers()).containsExactly(customerDTOMapper.apply(maria));
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        //When
+        underTest.getCustomers(firstPage.nextCursor(), 1);
+
+        //Then
+        verify(customerDao).selectCustomers(1L, 2);
+    }
+
+    @Test
+    void getCustomersReturnsNoCursorOnLastPage() {
+        //Given
+        CustomerView maria = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 0);
+        when(customerDao.selectCustomers(0L, 3)).thenReturn(List.of(maria));
+
+        //When
+        CustomerPage actual = underTest.getCustomers(null, 2);
+
+        //Then
+        assertThat(actual.customers()).containsExactly(customerDTOMapper.apply(maria));
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void willThrowWhenGetCustomersCursorIsInvalid() {
+        //When
+        assertThatThrownBy(() -> underTest.getCustomers("not-a-cursor", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor");
+
+        //Then
+        verify(customerDao, never()).selectCustomers(any(), anyInt());
+    }
+
+    @Test
+    void willThrowWhenGetCustomersLimitIsOutOfRange() {
+        //When
+        assertThatThrownBy(() -> underTest.getCustomers(null, CustomerCursor.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("limit must be between 1 and %s".formatted(CustomerCursor.MAX_PAGE_SIZE));
+
+        //Then
+        verify(customerDao, never()).selectCustomers(any(), anyInt());
+    }
+
+    @Test
+    void getCustomersWithFiltersSearches() {
+        //Given
+        CustomerSearch search = new CustomerSearch("mar", null, 18, 30, "FEMALE", null);
+
+        //When
+        underTest.getCustomers(search, null, null);
+
+        //Then
+        verify(customerDao).searchCustomers(search, CustomerCursor.DEFAULT_PAGE_SIZE + 1);
+        verify(customerDao, never()).selectCustomers(any(), anyInt());
+    }
+
+    @Test
+    void searchCursorResumesAfterLastRowInSortOrder() {
+        //Given
+        CustomerSearch search = new CustomerSearch(null, null, null, null, null, CustomerSort.parse("-age"));
+        CustomerView alex = new CustomerView(2L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        CustomerView maria = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 0);
+        when(customerDao.searchCustomers(search, 2)).thenReturn(List.of(alex, maria));
+
+        //When
+        CustomerPage firstPage = underTest.getCustomers(search, null, 1);
+        underTest.getCustomers(search, firstPage.nextCursor(), 1);
+
+        //Then
+        assertThat(firstPage.customers()).containsExactly(customerDTOMapper.apply(alex));
+        verify(customerDao).searchCustomers(search.after(2L, 21), 2);
+    }
+
+    @Test
+    void willThrowWhenSearchCursorComesFromAnotherSort() {
+        //Given
+        String nameCursor = CustomerCursor.encode(
+                CustomerSort.parse("name"), new CustomerView(2L, "Alex", "alex@gmail.com", 21, "MALE", 0));
+        CustomerSearch byAge = new CustomerSearch(null, null, null, null, null, CustomerSort.parse("age"));
+
+        //When
+        assertThatThrownBy(() -> underTest.getCustomers(byAge, nameCursor, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor");
+
+        //Then
+        verify(customerDao, never()).searchCustomers(any(), anyInt());
+    }
+
+    @Test
+    void willThrowWhenAgeRangeIsInverted() {
+        //Given
+        CustomerSearch search = new CustomerSearch(null, null, 30, 18, null, null);
+
+        //When
+        assertThatThrownBy(() -> underTest.getCustomers(search, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("ageMin must not be greater than ageMax");
+
+        //Then
+        verify(customerDao, never()).searchCustomers(any(), anyInt());
     }
 
     @Test
     void canGetCustomer() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        customer.setVersion(0);
+        when(customerDao.selectCustomerViewById(id)).thenReturn(Optional.of(CustomerView.of(customer)));
 
+        // the projection must map to exactly what the entity maps to
         CustomerDTO expected = customerDTOMapper.apply(customer);
 
         //When
-        CustomerDTO actual = underTest.getCustomer(1);
+        VersionedCustomer actual = underTest.getCustomer(1L);
 
         //Then
-        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.customer()).isEqualTo(expected);
+    }
+
+    @Test
+    void getCustomerTagsWithIdAndVersion() {
+        //Given
+        long id = 1;
+        CustomerView customer = new CustomerView(id, "Maria", "maria@gmail.com", 18, "FEMALE", 4);
+        when(customerDao.selectCustomerViewById(id)).thenReturn(Optional.of(customer));
+
+        //When
+        VersionedCustomer actual = underTest.getCustomer(id);
+
+        //Then
+        assertThat(actual.eTag()).isEqualTo("\"1-4\"");
+    }
+
+    @Test
+    void pageETagChangesWithRowVersions() {
+        //Given
+        CustomerView maria = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 0);
+        CustomerView updated = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 1);
+        when(customerDao.selectCustomers(0L, CustomerCursor.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(List.of(maria))
+                .thenReturn(List.of(maria))
+                .thenReturn(List.of(updated));
+
+        //When
+        String first = underTest.getCustomers(null, null).eTag();
+        String unchanged = underTest.getCustomers(null, null).eTag();
+        String changed = underTest.getCustomers(null, null).eTag();
+
+        //Then
+        assertThat(unchanged).isEqualTo(first);
+        assertThat(changed).isNotEqualTo(first);
     }
 
     @Test
     void willThrowWhenGetCustomerReturnEmptyOptional() {
         //Given
-        int id = 1;
+        long id = 1;
 
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.empty());
+        when(customerDao.selectCustomerViewById(id)).thenReturn(Optional.empty());
 
         //When
 
@@ -76,15 +242,17 @@ public class CustomerServiceTest {
         //Given
         String email = "maria@gmail.com";
 
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(false);
-
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Maria", email, "password", 18, "FEMALE"
         );
 
         String passwordHash = "54t4;v883dn;65yh";
 
-        when(passwordEncoder.encode(request.password())).thenReturn(passwordHash);
+        when(passwordHasher.encode(request.password())).thenReturn(passwordHash);
+        when(customerDao.insertCustomer(any())).thenAnswer(invocation -> {
+            invocation.<Customer>getArgument(0).setId(7L);
+            return true;
+        });
 
         //When
         underTest.addCustomer(request);
@@ -96,12 +264,15 @@ public class CustomerServiceTest {
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getId()).isNull();
         assertThat(capturedCustomer.getName()).isEqualTo(request.name());
         assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
         assertThat(capturedCustomer.getPassword()).isEqualTo(passwordHash);
         assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
         assertThat(capturedCustomer.getGender()).isEqualTo(request.gender());
+        verify(customerOutbox).append(
+                CustomerChangeEvent.Type.CREATED, 7L, customerDTOMapper.apply(capturedCustomer));
+        verify(customerChangeFeed).publish(
+                CustomerChangeEvent.Type.CREATED, 7L, customerDTOMapper.apply(capturedCustomer));
     }
 
     @Test
@@ -112,36 +283,39 @@ public class CustomerServiceTest {
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Maria", email, "password", 18, "FEMALE"
         );
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(true);
+        when(customerDao.insertCustomer(any())).thenReturn(false);
 
         //When
+        //Then
         assertThatThrownBy(() -> underTest.addCustomer(request))
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("email already taken");
-
-        //Then
-        verify(customerDao, never()).insertCustomer(any());
+        verifyNoInteractions(customerOutbox, customerChangeFeed);
     }
 
     @Test
     void deleteCustomerById() {
         //Given
-        int id = 1;
+        long id = 1;
+        Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
 
-        when(customerDao.existsCustomerWithId(id)).thenReturn(true);
+        when(customerDao.deleteCustomerById(id)).thenReturn(Optional.of(customer));
 
         //When
         underTest.deleteCustomerById(id);
 
         //Then
-        verify(customerDao).deleteCustomerById(id);
+        verify(customerUserDetailsService).evictUser(customer.getEmail());
+        verify(tokenDenyList).revokeSubject(customer.getEmail());
+        verify(customerOutbox).append(CustomerChangeEvent.Type.DELETED, id, null);
+        verify(customerChangeFeed).publish(CustomerChangeEvent.Type.DELETED, id, null);
     }
     @Test
     void willThrowWhenDeleteCustomerByIdNotExist() {
         //Given
-        int id = 1;
+        long id = 1;
 
-        when(customerDao.existsCustomerWithId(id)).thenReturn(false);
+        when(customerDao.deleteCustomerById(id)).thenReturn(Optional.empty());
 
         //When
         assertThatThrownBy(() -> underTest.deleteCustomerById(id))
@@ -150,23 +324,21 @@ public class CustomerServiceTest {
 
 
         //Then
-        verify(customerDao, never()).deleteCustomerById(id);
+        verifyNoInteractions(customerUserDetailsService, tokenDenyList, customerOutbox, customerChangeFeed);
     }
 
 
     @Test
     void canUpdateAllCustomerProperties() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         String newEmail = "marianna@gmail.com";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 "Marianna", newEmail, 20, "MALE");
 
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(false);
-
         //When
         underTest.updateCustomer(id, updateRequest);
 
@@ -180,14 +352,19 @@ public class CustomerServiceTest {
         assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
         assertThat(capturedCustomer.getGender()).isEqualTo(updateRequest.gender());
+        CustomerDTO updated = new CustomerDTO(
+                id, "Marianna", newEmail, 20, "MALE", List.of("ROLE_USER"), newEmail);
+        verify(customerOutbox).append(CustomerChangeEvent.Type.UPDATED, id, updated);
+        verify(customerChangeFeed).publish(CustomerChangeEvent.Type.UPDATED, id, updated);
     }
 
     @Test
     void canUpdateOnlyCustomerName() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        customer.setVersion(3);
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 "Marianna", null, null, null);
@@ -201,25 +378,28 @@ public class CustomerServiceTest {
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
+        // only the given column goes to the DAO, plus what identifies the row; without If-Match there is no version
+        assertThat(capturedCustomer.getId()).isEqualTo(id);
+        assertThat(capturedCustomer.getVersion()).isNull();
         assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
-        assertThat(capturedCustomer.getGender()).isEqualTo(customer.getGender());
+        assertThat(capturedCustomer.getEmail()).isNull();
+        assertThat(capturedCustomer.getPassword()).isNull();
+        assertThat(capturedCustomer.getAge()).isNull();
+        assertThat(capturedCustomer.getGender()).isNull();
+        verify(tokenDenyList, never()).revokeSubject(any());
     }
 
     @Test
     void canUpdateOnlyCustomerEmail() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         String newEmail = "marianna@gmail.com";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 null, newEmail, null, null);
 
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(false);
-
         //When
         underTest.updateCustomer(id, updateRequest);
 
@@ -229,18 +409,20 @@ public class CustomerServiceTest {
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
+        assertThat(capturedCustomer.getName()).isNull();
         assertThat(capturedCustomer.getEmail()).isEqualTo(newEmail);
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
-        assertThat(capturedCustomer.getGender()).isEqualTo(customer.getGender());
+        assertThat(capturedCustomer.getAge()).isNull();
+        assertThat(capturedCustomer.getGender()).isNull();
+        verify(customerUserDetailsService).evictUser("maria@gmail.com");
+        verify(tokenDenyList).revokeSubject("maria@gmail.com");
     }
 
     @Test
     void canUpdateOnlyCustomerAge() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 null, null, 20, null);
@@ -254,18 +436,18 @@ public class CustomerServiceTest {
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
+        assertThat(capturedCustomer.getName()).isNull();
+        assertThat(capturedCustomer.getEmail()).isNull();
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
-        assertThat(capturedCustomer.getGender()).isEqualTo(customer.getGender());
+        assertThat(capturedCustomer.getGender()).isNull();
     }
 
     @Test
     void canUpdateOnlyCustomerGender() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 null, null, null, "MALE");
@@ -279,24 +461,38 @@ public class CustomerServiceTest {
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
+        assertThat(capturedCustomer.getName()).isNull();
+        assertThat(capturedCustomer.getEmail()).isNull();
+        assertThat(capturedCustomer.getAge()).isNull();
         assertThat(capturedCustomer.getGender()).isEqualTo(updateRequest.gender());
     }
 
+    @Test
+    void willThrowWhenUpdatedCustomerNoLongerExists() {
+        //Given
+        long id = 1;
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.empty());
+
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
+                "Marianna", null, null, null);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
+    }
+
     @Test
     void willThrowWhenTryingToUpdateCustomerEmailWhenAlreadyTaken() {
         //Given
-        int id = 1;
-        Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        long id = 1;
 
         String newEmail = "marianna@gmail.com";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 null, newEmail, null, null);
 
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(true);
+        when(customerDao.updateCustomer(any())).thenThrow(new DuplicateKeyException("customer_email_unique"));
 
         //When
         assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
@@ -304,15 +500,70 @@ public class CustomerServiceTest {
                 .hasMessage("email already taken");
 
         //Then
-        verify(customerDao, never()).updateCustomer(any());
+        verifyNoInteractions(customerUserDetailsService, tokenDenyList, customerOutbox, customerChangeFeed);
+    }
+
+    @Test
+    void conditionalUpdateIsASingleVersionedStatement() {
+        //Given
+        long id = 1;
+        Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
+        customer.setVersion(3);
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
+
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
+                "Marianna", null, null, null);
+
+        //When
+        underTest.updateCustomer(id, updateRequest, 3);
+
+        //Then
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getVersion()).isEqualTo(3);
+        verify(customerDao, never()).selectCustomerById(any());
+        verify(customerDao, never()).existsCustomerWithId(any());
+    }
+
+    @Test
+    void willThrowPreconditionFailedWhenIfMatchVersionIsStale() {
+        //Given
+        long id = 1;
+        when(customerDao.updateCustomer(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
+                "Marianna", null, null, null);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest, 2))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        //Then
+        verifyNoInteractions(customerUserDetailsService, tokenDenyList, customerOutbox, customerChangeFeed);
+    }
+
+    @Test
+    void willThrowNotFoundWhenConditionalUpdateFindsNoCustomer() {
+        //Given
+        long id = 1;
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.empty());
+
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
+                "Marianna", null, null, null);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest, 2))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
     }
 
     @Test
     void willThrowWhenCustomerUpdateHasNoChanges() {
         //Given
-        int id = 1;
+        long id = 1;
         Customer customer = new Customer(id, "Maria", "maria@gmail.com", "password", 18, "FEMALE");
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenAnswer(updatedRow(customer));
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
                 customer.getName(), customer.getEmail(), customer.getAge(), customer.getGender());
@@ -323,6 +574,46 @@ public class CustomerServiceTest {
                 .hasMessage("no data changes found");
 
         //Then
-        verify(customerDao, never()).updateCustomer(any());
+        verifyNoInteractions(customerUserDetailsService, tokenDenyList, customerOutbox, customerChangeFeed);
+    }
+
+    @Test
+    void willThrowWhenCustomerUpdateSetsNoFields() {
+        //Given
+        long id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, null, null, null);
+
+        //When
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no data changes found");
+
+        //Then
+        verifyNoInteractions(customerDao);
+    }
+
+    // what the DAO hands back: the stored row with the sparse update applied and its old email, or the stored row
+    // untouched when every given field already held its value
+    private static Answer<Optional<UpdatedCustomer>> updatedRow(Customer stored) {
+        return invocation -> {
+            Customer changes = invocation.getArgument(0);
+            Customer row = stored.copy();
+            if (changes.getName() != null) {
+                row.setName(changes.getName());
+            }
+            if (changes.getEmail() != null) {
+                row.setEmail(changes.getEmail());
+            }
+            if (changes.getAge() != null) {
+                row.setAge(changes.getAge());
+            }
+            if (changes.getGender() != null) {
+                row.setGender(changes.getGender());
+            }
+            if (row.equals(stored)) {
+                return Optional.of(UpdatedCustomer.unchanged(stored.copy()));
+            }
+            return Optional.of(new UpdatedCustomer(row, stored.getEmail(), true));
+        };
     }
 }
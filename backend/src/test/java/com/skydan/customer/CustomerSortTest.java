@@ -0,0 +1,39 @@
+package com.skydan.customer;
+
+import com.skydan.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerSortTest {
+
+    @Test
+    void parseReadsFieldAndDirection() {
+        //When
+        //Then
+        assertThat(CustomerSort.parse(null)).isEqualTo(CustomerSort.DEFAULT);
+        assertThat(CustomerSort.parse("name")).isEqualTo(new CustomerSort(CustomerSort.Field.NAME, false));
+        assertThat(CustomerSort.parse("-age")).isEqualTo(new CustomerSort(CustomerSort.Field.AGE, true));
+    }
+
+    @Test
+    void willThrowWhenFieldIsUnknown() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerSort.parse("password"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("sort must be one of id, name, age, optionally prefixed with -");
+    }
+
+    @Test
+    void searchLikePatternsEscapeWildcards() {
+        //Given
+        CustomerSearch search = new CustomerSearch("50%_off", "a_b", null, null, null, null);
+
+        //When
+        //Then
+        assertThat(search.nameLikePattern()).isEqualTo("%50\\%\\_off%");
+        assertThat(search.emailPrefixLikePattern()).isEqualTo("a\\_b%");
+    }
+}
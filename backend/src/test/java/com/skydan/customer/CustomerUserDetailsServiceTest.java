@@ -0,0 +1,96 @@
+package com.skydan.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerUserDetailsServiceTest {
+
+    @Mock private CustomerDao customerDao;
+    private CustomerUserDetailsService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerUserDetailsService(
+                customerDao, 100, Duration.ofMinutes(5), new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void loadUserByUsernameIsCached() {
+        //Given
+        String email = "maria@gmail.com";
+        Customer customer = new Customer(1L, "Maria", email, "password", 18, "FEMALE");
+        when(customerDao.selectUserByEmail(email)).thenReturn(Optional.of(customer));
+
+        //When
+        underTest.loadUserByUsername(email);
+        UserDetails actual = underTest.loadUserByUsername(email);
+
+        //Then
+        assertThat(actual).isEqualTo(customer);
+        verify(customerDao).selectUserByEmail(email);
+    }
+
+    @Test
+    void evictUserForcesReload() {
+        //Given
+        String email = "maria@gmail.com";
+        Customer customer = new Customer(1L, "Maria", email, "password", 18, "FEMALE");
+        when(customerDao.selectUserByEmail(email)).thenReturn(Optional.of(customer));
+        underTest.loadUserByUsername(email);
+
+        //When
+        underTest.evictUser(email);
+        underTest.loadUserByUsername(email);
+
+        //Then
+        verify(customerDao, times(2)).selectUserByEmail(email);
+    }
+
+    @Test
+    void willThrowWhenUserNotFound() {
+        //Given
+        String email = "maria@gmail.com";
+        when(customerDao.selectUserByEmail(email)).thenReturn(Optional.empty());
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class)
+                .hasMessage("Username " + email + " not found");
+    }
+
+    @Test
+    void updatePasswordStoresUpgradedHashAndEvicts() {
+        //Given
+        String email = "maria@gmail.com";
+        Customer customer = new Customer(1L, "Maria", email, "$2a$10$legacy", 18, "FEMALE");
+        when(customerDao.selectUserByEmail(email)).thenReturn(Optional.of(customer));
+        underTest.loadUserByUsername(email);
+
+        //When
+        UserDetails actual = underTest.updatePassword(customer, "{bcrypt}$2a$12$upgraded");
+        underTest.loadUserByUsername(email);
+
+        //Then
+        assertThat(actual.getPassword()).isEqualTo("{bcrypt}$2a$12$upgraded");
+        verify(customerDao).updateCustomer(customer);
+        verify(customerDao, times(2)).selectUserByEmail(email);
+    }
+}
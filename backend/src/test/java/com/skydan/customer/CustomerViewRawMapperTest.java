@@ -0,0 +1,36 @@
+package com.skydan.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+public class CustomerViewRawMapperTest {
+
+    @Test
+    void mapRow() throws SQLException {
+        //Given
+        CustomerViewRawMapper customerViewRawMapper = new CustomerViewRawMapper();
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("id")).thenReturn(1L);
+        when(resultSet.getString("name")).thenReturn("Maria");
+        when(resultSet.getString("email")).thenReturn("maria@gmail.com");
+        when(resultSet.getInt("age")).thenReturn(19);
+        when(resultSet.getString("gender")).thenReturn("FEMALE");
+        when(resultSet.getInt("version")).thenReturn(3);
+
+        //When
+        CustomerView actual = customerViewRawMapper.mapRow(resultSet, 1);
+
+        //Then
+        CustomerView expected = new CustomerView(
+                1L, "Maria", "maria@gmail.com", 19, "FEMALE", 3
+        );
+        assertThat(actual).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,42 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileCustomerOutboxSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void publishAppendsOneJsonLinePerMessage() throws Exception {
+        //Given
+        Path file = directory.resolve("outbox.ndjson");
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        FileCustomerOutboxSink underTest = new FileCustomerOutboxSink(file, objectMapper);
+        Instant createdAt = Instant.parse("2023-04-01T10:15:30Z");
+
+        //When
+        underTest.publish(List.of(new CustomerOutboxMessage(
+                1, CustomerChangeEvent.Type.CREATED, 7L, "{\"id\":7,\"name\":\"Alex\"}", createdAt)));
+        underTest.publish(List.of(new CustomerOutboxMessage(
+                2, CustomerChangeEvent.Type.DELETED, 7L, null, createdAt)));
+
+        //Then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("customer").get("name").asText()).isEqualTo("Alex");
+        assertThat(objectMapper.readTree(lines.get(0)).get("type").asText()).isEqualTo("CREATED");
+        assertThat(objectMapper.readTree(lines.get(1)).has("customer")).isFalse();
+        assertThat(objectMapper.readTree(lines.get(1)).get("id").asLong()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.skydan.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedCustomerDaoTest {
+
+    @Mock private CustomerDao delegate;
+    private MeterRegistry meterRegistry;
+    private InstrumentedCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new InstrumentedCustomerDao(delegate, "jdbc", meterRegistry);
+    }
+
+    @Test
+    void recordsLatencyAndRowsPerMethod() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        CustomerView jamila = new CustomerView(2L, "Jamila", "jamila@gmail.com", 19, "FEMALE", 0);
+        when(delegate.selectCustomers(0L, 51)).thenReturn(List.of(alex, jamila));
+
+        //When
+        List<CustomerView> actual = underTest.selectCustomers(0L, 51);
+
+        //Then
+        assertThat(actual).containsExactly(alex, jamila);
+        assertThat(meterRegistry.get(InstrumentedCustomerDao.TIMER_NAME)
+                .tags("implementation", "jdbc", "method", "selectCustomers", "outcome", "success")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(InstrumentedCustomerDao.ROWS_NAME)
+                .tags("implementation", "jdbc", "method", "selectCustomers")
+                .summary()
+                .totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void countsMissingRowAsZero() {
+        //Given
+        when(delegate.selectCustomerById(10L)).thenReturn(Optional.empty());
+
+        //When
+        underTest.selectCustomerById(10L);
+
+        //Then
+        assertThat(meterRegistry.get(InstrumentedCustomerDao.ROWS_NAME)
+                .tags("method", "selectCustomerById")
+                .summary()
+                .totalAmount()).isZero();
+    }
+
+    @Test
+    void recordsErrorsWithExceptionTag() {
+        //Given
+        Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(delegate.updateCustomer(alex)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(alex))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(meterRegistry.get(InstrumentedCustomerDao.TIMER_NAME)
+                .tags("method", "updateCustomer", "outcome", "error",
+                        "exception", "OptimisticLockingFailureException")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.find(InstrumentedCustomerDao.ROWS_NAME).summary()).isNull();
+    }
+}
@@ -0,0 +1,208 @@
+package com.skydan.customer;
+
+import com.skydan.exception.DuplicateResourceException;
+import com.skydan.exception.RequestValidationException;
+import com.skydan.exception.ResourceNotFoundException;
+import com.skydan.jwt.TokenDenyList;
+import com.skydan.security.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    @Mock private ReactiveCustomerDao customerDao;
+    @Mock private PasswordHasher passwordHasher;
+    @Mock private TokenDenyList tokenDenyList;
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private ReactiveCustomerService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveCustomerService(customerDao, customerDTOMapper, passwordHasher, tokenDenyList);
+    }
+
+    @Test
+    void getCustomersReturnsCursorWhenMoreCustomersExist() {
+        //Given
+        CustomerView maria = new CustomerView(1L, "Maria", "maria@gmail.com", 18, "FEMALE", 0);
+        CustomerView alex = new CustomerView(2L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomers(0L, 2)).thenReturn(Flux.just(maria, alex));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.getCustomers(null, 1))
+                .assertNext(page -> {
+                    assertThat(page.customers()).containsExactly(customerDTOMapper.apply(maria));
+                    assertThat(CustomerCursor.decode(page.nextCursor())).isEqualTo(1);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomersRejectsLimitOutOfRange() {
+        //When
+        //Then
+        StepVerifier.create(underTest.getCustomers(null, 0))
+                .expectError(RequestValidationException.class)
+                .verify();
+        verifyNoInteractions(customerDao);
+    }
+
+    @Test
+    void streamCustomersStartsAfterCursor() {
+        //Given
+        CustomerView alex = new CustomerView(2L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.streamCustomers(1L)).thenReturn(Flux.just(alex));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.streamCustomers(CustomerCursor.encode(1L)))
+                .expectNext(customerDTOMapper.apply(alex))
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomerReadsTheView() {
+        //Given
+        CustomerView alex = new CustomerView(10L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        when(customerDao.selectCustomerViewById(10L)).thenReturn(Mono.just(alex));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.getCustomer(10L))
+                .expectNext(customerDTOMapper.apply(alex))
+                .verifyComplete();
+        verify(customerDao, never()).selectCustomerById(any());
+    }
+
+    @Test
+    void willThrowWhenGetCustomerReturnEmpty() {
+        //Given
+        when(customerDao.selectCustomerViewById(10L)).thenReturn(Mono.empty());
+
+        //When
+        //Then
+        StepVerifier.create(underTest.getCustomer(10L))
+                .expectErrorMessage("customer with id [10] not found")
+                .verify();
+    }
+
+    @Test
+    void addCustomerHashesPasswordOffTheCallingThread() {
+        //Given
+        String email = "alex@gmail.com";
+        when(passwordHasher.encodeAsync("password")).thenReturn(CompletableFuture.completedFuture("hashed"));
+        when(customerDao.insertCustomer(any())).thenReturn(Mono.just(true));
+
+        //When
+        StepVerifier.create(underTest.addCustomer(
+                        new CustomerRegistrationRequest("Alex", email, "password", 19, "MALE")))
+                .verifyComplete();
+
+        //Then
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getEmail()).isEqualTo(email);
+        assertThat(customerArgumentCaptor.getValue().getPassword()).isEqualTo("hashed");
+    }
+
+    @Test
+    void willThrowWhenEmailExistsWhileAddingCustomer() {
+        //Given
+        String email = "alex@gmail.com";
+        when(passwordHasher.encodeAsync("password")).thenReturn(CompletableFuture.completedFuture("hashed"));
+        when(customerDao.insertCustomer(any())).thenReturn(Mono.just(false));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.addCustomer(
+                        new CustomerRegistrationRequest("Alex", email, "password", 19, "MALE")))
+                .expectError(DuplicateResourceException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteCustomerByIdRevokesTokens() {
+        //Given
+        Customer alex = new Customer(10L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.deleteCustomerById(10L)).thenReturn(Mono.just(alex));
+
+        //When
+        StepVerifier.create(underTest.deleteCustomerById(10L)).verifyComplete();
+
+        //Then
+        verify(tokenDenyList).revokeSubject("alex@gmail.com");
+    }
+
+    @Test
+    void willThrowDeleteCustomerByIdNotExists() {
+        //Given
+        when(customerDao.deleteCustomerById(10L)).thenReturn(Mono.empty());
+
+        //When
+        //Then
+        StepVerifier.create(underTest.deleteCustomerById(10L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verifyNoInteractions(tokenDenyList);
+    }
+
+    @Test
+    void updateCustomerEmailRevokesPreviousSubject() {
+        //Given
+        Customer alex = new Customer(10L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.selectCustomerById(10L)).thenReturn(Mono.just(alex));
+        when(customerDao.updateCustomer(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.updateCustomer(10L, new CustomerUpdateRequest(null, "new@gmail.com", null, null)))
+                .assertNext(updated -> assertThat(updated.email()).isEqualTo("new@gmail.com"))
+                .verifyComplete();
+        verify(tokenDenyList).revokeSubject("alex@gmail.com");
+    }
+
+    @Test
+    void willThrowWhenUpdatedEmailIsAlreadyTaken() {
+        //Given
+        Customer alex = new Customer(10L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.selectCustomerById(10L)).thenReturn(Mono.just(alex));
+        when(customerDao.updateCustomer(any())).thenReturn(Mono.error(new DuplicateKeyException("customer_email_unique")));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.updateCustomer(10L, new CustomerUpdateRequest(null, "taken@gmail.com", null, null)))
+                .expectErrorMessage("email already taken")
+                .verify();
+        verifyNoInteractions(tokenDenyList);
+    }
+
+    @Test
+    void willThrowWhenCustomerUpdateHasNoChanges() {
+        //Given
+        Customer alex = new Customer(10L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.selectCustomerById(10L)).thenReturn(Mono.just(alex));
+
+        //When
+        //Then
+        StepVerifier.create(underTest.updateCustomer(10L, new CustomerUpdateRequest("Alex", null, 21, null)))
+                .expectErrorMessage("no data changes found")
+                .verify();
+        verify(customerDao, never()).updateCustomer(any());
+    }
+}
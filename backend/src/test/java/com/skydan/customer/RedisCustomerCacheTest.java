@@ -0,0 +1,201 @@
+package com.skydan.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+// jedis-mock is an in-process Redis protocol server, so this exercises the real client and wire format
+class RedisCustomerCacheTest {
+
+    private RedisServer redisServer;
+    private RedisClient redisClient;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCustomerCache underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer();
+        redisServer.start();
+        redisClient = RedisClient.create("redis://%s:%d".formatted(redisServer.getHost(), redisServer.getBindPort()));
+        redisClient.setOptions(CustomerCacheConfig.redisClientOptions(Duration.ofMillis(500)));
+        connection = redisClient.connect();
+        underTest = new RedisCustomerCache(connection, new ObjectMapper(), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connection.close();
+        redisClient.shutdown();
+        if (redisServer.isRunning()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void getStoresLoadedCustomerWithTtl() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 3);
+        AtomicInteger loads = new AtomicInteger();
+
+        //When
+        underTest.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(alex);
+        });
+        Optional<CustomerView> actual = underTest.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        //Then
+        assertThat(loads).hasValue(1);
+        assertThat(actual).contains(alex);
+        assertThat(connection.sync().get("customer:1")).doesNotContain("password");
+        assertThat(connection.sync().ttl("customer:1")).isBetween(1L, 60L);
+    }
+
+    @Test
+    void getKeepsSubSecondTtl() {
+        //Given
+        RedisCustomerCache shortLived = new RedisCustomerCache(connection, new ObjectMapper(), Duration.ofMillis(500));
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+
+        //When
+        shortLived.get(1L, id -> Optional.of(alex));
+
+        //Then
+        assertThat(connection.sync().pttl("customer:1")).isBetween(1L, 500L);
+    }
+
+    @Test
+    void evictRemovesCustomer() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        underTest.get(1L, id -> Optional.of(alex));
+
+        //When
+        underTest.evict(1L);
+
+        //Then
+        assertThat(connection.sync().exists("customer:1")).isZero();
+        assertThat(underTest.get(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void loadThatFinishesAfterAnEvictIsNotStored() {
+        //Given
+        CustomerView before = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        CustomerView after = new CustomerView(1L, "Alex", "alex@gmail.com", 22, "MALE", 1);
+
+        //When
+        Optional<CustomerView> stale = underTest.get(1L, id -> {
+            // an update commits and evicts while this load still holds the row it read before
+            underTest.evict(1L);
+            return Optional.of(before);
+        });
+
+        //Then
+        assertThat(stale).contains(before);
+        assertThat(connection.sync().exists("customer:1")).isZero();
+        assertThat(underTest.get(1L, id -> Optional.of(after))).contains(after);
+        assertThat(underTest.get(1L, id -> Optional.empty())).contains(after);
+    }
+
+    @Test
+    void concurrentMissesOnOneIdShareASingleLoad() throws Exception {
+        //Given
+        int threads = 8;
+        CountDownLatch loading = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //When
+        List<Future<Optional<CustomerView>>> results;
+        try {
+            results = IntStream.range(0, threads)
+                    .mapToObj(i -> executor.submit((Callable<Optional<CustomerView>>) () -> underTest.get(1L, id -> {
+                        loads.incrementAndGet();
+                        try {
+                            loading.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Optional.of(alex);
+                    })))
+                    .toList();
+            Thread.sleep(200);
+            loading.countDown();
+            for (Future<Optional<CustomerView>> result : results) {
+                assertThat(result.get()).contains(alex);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getFallsBackToLoaderWhenServerIsDown() throws IOException {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+        redisServer.stop();
+
+        //When
+        Optional<CustomerView> actual = underTest.get(1L, id -> Optional.of(alex));
+
+        //Then
+        assertThat(actual).contains(alex);
+    }
+
+    @Test
+    void getReturnsLoadedCustomerWhenServerGoesDownDuringLoad() {
+        //Given
+        CustomerView alex = new CustomerView(1L, "Alex", "alex@gmail.com", 21, "MALE", 0);
+
+        //When
+        Optional<CustomerView> actual = underTest.get(1L, id -> {
+            try {
+                redisServer.stop();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Optional.of(alex);
+        });
+
+        //Then
+        assertThat(actual).contains(alex);
+    }
+
+    @Test
+    void evictDoesNotFailWhenServerIsDown() throws IOException {
+        //Given
+        redisServer.stop();
+
+        //When
+        //Then
+        assertThatCode(() -> underTest.evict(1L)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,138 @@
+package com.skydan.customer;
+
+import com.skydan.datasource.ReadOnlyRouting;
+import com.skydan.datasource.ReadYourWrites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingCustomerDaoTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    @Mock
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingCustomerDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReplicaRoutingCustomerDao(customerDao, readYourWrites);
+    }
+
+    @Test
+    void listAndSearchReadsMayUseAReplica() {
+        //Given
+        when(customerDao.selectCustomers(0L, 10))
+                .thenAnswer(invocation -> List.of(view(ReadOnlyRouting.isReadOnly())));
+        when(customerDao.searchCustomers(CustomerSearch.ALL, 10))
+                .thenAnswer(invocation -> List.of(view(ReadOnlyRouting.isReadOnly())));
+
+        //When
+        List<CustomerView> page = underTest.selectCustomers(0L, 10);
+        List<CustomerView> search = underTest.searchCustomers(CustomerSearch.ALL, 10);
+
+        //Then
+        assertThat(page).extracting(CustomerView::name).containsExactly("read-only");
+        assertThat(search).extracting(CustomerView::name).containsExactly("read-only");
+        assertThat(ReadOnlyRouting.isReadOnly()).isFalse();
+        verify(readYourWrites, never()).recordWrite();
+    }
+
+    @Test
+    void lookupsByIdAndEmailMayUseAReplica() {
+        //Given
+        Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.selectCustomerViewById(1L))
+                .thenAnswer(invocation -> Optional.of(view(ReadOnlyRouting.isReadOnly())));
+        when(customerDao.selectCustomerById(1L))
+                .thenAnswer(invocation -> ReadOnlyRouting.isReadOnly() ? Optional.of(alex) : Optional.empty());
+        when(customerDao.selectUserByEmail("alex@gmail.com"))
+                .thenAnswer(invocation -> ReadOnlyRouting.isReadOnly() ? Optional.of(alex) : Optional.empty());
+
+        //When
+        Optional<CustomerView> view = underTest.selectCustomerViewById(1L);
+        Optional<Customer> customer = underTest.selectCustomerById(1L);
+        Optional<Customer> user = underTest.selectUserByEmail("alex@gmail.com");
+
+        //Then
+        assertThat(view).hasValueSatisfying(v -> assertThat(v.name()).isEqualTo("read-only"));
+        assertThat(customer).contains(alex);
+        assertThat(user).contains(alex);
+    }
+
+    @Test
+    void lookupsOfARecentlyWrittenCustomerUseThePrimaryEvenInReadOnlyTransactions() {
+        //Given
+        when(readYourWrites.isPinnedToPrimary("customer:1")).thenReturn(true);
+        when(customerDao.selectCustomerViewById(1L))
+                .thenAnswer(invocation -> Optional.of(view(isReadOnlyInRepositoryTransaction())));
+
+        //When
+        Optional<CustomerView> actual = underTest.selectCustomerViewById(1L);
+
+        //Then
+        assertThat(actual).hasValueSatisfying(view -> assertThat(view.name()).isEqualTo("primary"));
+    }
+
+    @Test
+    void existenceChecksUseThePrimaryEvenInReadOnlyTransactions() {
+        //Given
+        when(customerDao.existsCustomerWithId(1L)).thenAnswer(invocation -> isReadOnlyInRepositoryTransaction());
+        when(customerDao.existsCustomerWithEmail("alex@gmail.com"))
+                .thenAnswer(invocation -> isReadOnlyInRepositoryTransaction());
+
+        //When
+        //Then
+        assertThat(underTest.existsCustomerWithId(1L)).isFalse();
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isFalse();
+    }
+
+    @Test
+    void writesAreRecordedEvenWhenTheyFail() {
+        //Given
+        Customer alex = new Customer(1L, "Alex", "alex@gmail.com", "password", 21, "MALE");
+        when(customerDao.updateCustomer(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        //When
+        underTest.insertCustomer(alex);
+        assertThatThrownBy(() -> underTest.updateCustomer(alex))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        underTest.deleteCustomerById(1L);
+
+        //Then
+        verify(readYourWrites).recordWrite();
+        verify(readYourWrites, times(2)).recordWrite("customer:1");
+    }
+
+    // what a Spring Data repository read sees: a read-only transaction of its own
+    private static boolean isReadOnlyInRepositoryTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return ReadOnlyRouting.isReadOnly();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private static CustomerView view(boolean readOnly) {
+        return new CustomerView(1L, readOnly ? "read-only" : "primary", "alex@gmail.com", 21, "MALE", 0);
+    }
+}
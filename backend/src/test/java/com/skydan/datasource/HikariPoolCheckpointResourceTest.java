@@ -0,0 +1,73 @@
+package com.skydan.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HikariPoolCheckpointResourceTest {
+
+    @Test
+    void suspendsAndEmptiesPoolsBeforeCheckpoint() throws Exception {
+        //Given
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getTotalConnections()).thenReturn(3, 1, 0);
+        HikariPoolCheckpointResource underTest = new HikariPoolCheckpointResource(
+                List.of(dataSource(pool), dataSource(null)), Duration.ofSeconds(5));
+
+        //When
+        underTest.beforeCheckpoint(null);
+
+        //Then
+        InOrder inOrder = inOrder(pool);
+        inOrder.verify(pool).suspendPool();
+        inOrder.verify(pool).softEvictConnections();
+        verify(pool, never()).resumePool();
+    }
+
+    @Test
+    void resumesPoolsWhenConnectionsAreNotReturnedInTime() {
+        //Given
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(pool.getTotalConnections()).thenReturn(1);
+        HikariPoolCheckpointResource underTest = new HikariPoolCheckpointResource(
+                List.of(dataSource(pool)), Duration.ofMillis(100));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.beforeCheckpoint(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("connections still open");
+        verify(pool).resumePool();
+    }
+
+    @Test
+    void resumesPoolsAfterRestore() {
+        //Given
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        HikariPoolCheckpointResource underTest = new HikariPoolCheckpointResource(
+                List.of(dataSource(pool), dataSource(null)), Duration.ofSeconds(5));
+
+        //When
+        underTest.afterRestore(null);
+
+        //Then
+        verify(pool).resumePool();
+    }
+
+    private static HikariDataSource dataSource(HikariPoolMXBean pool) {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        return dataSource;
+    }
+}
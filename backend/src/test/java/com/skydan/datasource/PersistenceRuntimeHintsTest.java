@@ -0,0 +1,30 @@
+package com.skydan.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.resource;
+
+public class PersistenceRuntimeHintsTest {
+
+    @Test
+    void registersMigrationsAndClassesLoadedByName() {
+        //Given
+        RuntimeHints hints = new RuntimeHints();
+
+        //When
+        new PersistenceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //Then
+        assertThat(resource().forResource("db/migration/V1__Initial_Setup.sql")).accepts(hints);
+        assertThat(resource().forResource("org/flywaydb/core/internal/version.txt")).accepts(hints);
+        assertThat(reflection().onType(TypeReference.of("org.hibernate.id.enhanced.PooledLoOptimizer"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(reflection().onType(TypeReference.of("org.flywaydb.core.internal.logging.slf4j.Slf4jLogCreator"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+}
@@ -0,0 +1,182 @@
+package com.skydan.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// a primary and a hot standby fed by streaming replication, as set up by the bitnami image
+@Testcontainers
+public class ReplicaRoutingDataSourceIntegrationTest {
+
+    private static final Network NETWORK = Network.newNetwork();
+    private static final String IMAGE = "bitnami/postgresql:15";
+
+    @Container
+    private static final GenericContainer<?> primary = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "master")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_USERNAME", "skydan")
+            .withEnv("POSTGRESQL_PASSWORD", "password")
+            .withEnv("POSTGRESQL_DATABASE", "customer")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 1));
+
+    @Container
+    private static final GenericContainer<?> replica = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .dependsOn(primary)
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "slave")
+            .withEnv("POSTGRESQL_MASTER_HOST", "primary")
+            .withEnv("POSTGRESQL_MASTER_PORT_NUMBER", "5432")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_PASSWORD", "password")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*started streaming WAL.*", 1));
+
+    private HikariDataSource primaryDataSource;
+    private HikariDataSource replicaDataSource;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primaryDataSource = dataSource(primary);
+        replicaDataSource = dataSource(replica);
+        Flyway.configure().dataSource(primaryDataSource).load().migrate();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        routingDataSource.close();
+        primaryDataSource.close();
+    }
+
+    @Test
+    void readOnlyWorkGoesToTheReplicaAndWritesToThePrimary() {
+        //Given
+        route(Duration.ZERO);
+        String email = "replicated-" + UUID.randomUUID() + "@gmail.com";
+
+        //When
+        jdbcTemplate.update(
+                "INSERT INTO customer(name, email, password, age, gender) VALUES ('Alex', ?, 'password', 21, 'MALE')",
+                email);
+
+        Boolean inReadOnlyTransaction = readOnlyTransaction().execute(status -> isOnReplica());
+
+        //Then
+        assertThat(isOnReplica()).isFalse();
+        assertThat(isReadOnlyOnReplica()).isTrue();
+        assertThat(inReadOnlyTransaction).isTrue();
+        assertThat(eventuallyOnReplica(email)).isTrue();
+    }
+
+    @Test
+    void readsFollowTheCallersWritesToThePrimaryDuringTheWindow() {
+        //Given
+        ReadYourWrites readYourWrites = route(Duration.ofMinutes(1));
+
+        //When
+        readYourWrites.recordWrite();
+
+        //Then
+        assertThat(isReadOnlyOnReplica()).isFalse();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        //Given
+        route(Duration.ZERO);
+        assertThat(isReadOnlyOnReplica()).isTrue();
+
+        //When
+        replicaDataSource.close();
+
+        //Then
+        assertThat(isReadOnlyOnReplica()).isFalse();
+        routingDataSource.checkReplicas();
+        assertThat(isReadOnlyOnReplica()).isFalse();
+    }
+
+    private ReadYourWrites route(Duration readYourWritesWindow) {
+        ReadYourWrites readYourWrites = new ReadYourWrites(readYourWritesWindow, 100);
+        routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource,
+                List.of(replicaDataSource),
+                readYourWrites,
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(10),
+                new SimpleMeterRegistry()
+        );
+        routingDataSource.checkReplicas();
+        jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+        return readYourWrites;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private boolean isReadOnlyOnReplica() {
+        return ReadOnlyRouting.readOnly(this::isOnReplica);
+    }
+
+    private boolean isOnReplica() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+    }
+
+    private boolean eventuallyOnReplica(String email) {
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replicaDataSource);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            Integer count = replicaTemplate.queryForObject(
+                    "SELECT count(*) FROM customer WHERE email = ?", Integer.class, email);
+            if (count != null && count == 1) {
+                return true;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static HikariDataSource dataSource(GenericContainer<?> container) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url("jdbc:postgresql://%s:%d/customer".formatted(container.getHost(), container.getMappedPort(5432)))
+                .username("skydan")
+                .password("password")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.skydan.journey;
+
+import com.skydan.jwt.JWTUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+@SpringBootTest(
+        webEnvironment = RANDOM_PORT,
+        properties = "security.actuator.password=scrape-secret"
+)
+public class ActuatorIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JWTUtil jwtUtil;
+
+    @Test
+    void healthAndInfoAreAnonymous() {
+        webTestClient.get()
+                .uri("/actuator/health")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri("/actuator/info")
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    void metricsAndPrometheusRejectAnonymousCallers() {
+        webTestClient.get()
+                .uri("/actuator/metrics")
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+
+        webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+    }
+
+    @Test
+    void metricsRejectCustomerTokens() {
+        String jwtToken = jwtUtil.issueToken("customer@skydan.com", "ROLE_USER");
+
+        webTestClient.get()
+                .uri("/actuator/metrics")
+                .header(AUTHORIZATION, "Bearer " + jwtToken)
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+    }
+
+    @Test
+    void metricsAndPrometheusAnswerTheScraper() {
+        webTestClient.get()
+                .uri("/actuator/metrics")
+                .headers(headers -> headers.setBasicAuth("prometheus", "scrape-secret"))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri("/actuator/prometheus")
+                .headers(headers -> headers.setBasicAuth("prometheus", "scrape-secret"))
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    void metricsRejectWrongScraperPassword() {
+        webTestClient.get()
+                .uri("/actuator/prometheus")
+                .headers(headers -> headers.setBasicAuth("prometheus", "wrong"))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+    }
+}
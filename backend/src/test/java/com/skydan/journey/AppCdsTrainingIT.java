@@ -0,0 +1,148 @@
+package com.skydan.journey;
+
+import com.skydan.auth.AuthenticationRequest;
+import com.skydan.auth.AuthenticationResponse;
+import com.skydan.customer.CustomerDTO;
+import com.skydan.customer.CustomerRegistrationRequest;
+import com.skydan.customer.CustomerUpdateRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.BindMode;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Training run for the app-cds image: starts the training image with {@code -XX:ArchiveClassesAtExit}, drives the
+ * customer journey through it so the classes behind every endpoint get loaded, then stops the JVM gracefully so it
+ * dumps the archive into {@code app-cds.directory}. Only runs under {@code mvn -Papp-cds verify}.
+ */
+@EnabledIfSystemProperty(named = "app-cds.training.image", matches = ".+")
+public class AppCdsTrainingIT {
+
+    private static final String ARCHIVE = "skydan-api.jsa";
+    private static final String AUTHENTICATION_PATH = "/api/v1/auth";
+    private static final String CUSTOMER_PATH = "/api/v1/customers";
+    private static final int ROUNDS = 50;
+
+    @Test
+    void dumpsArchiveAfterCustomerJourney() {
+        File directory = new File(System.getProperty("app-cds.directory"));
+        directory.mkdirs();
+        new File(directory, ARCHIVE).delete();
+
+        try (Network network = Network.newNetwork();
+             PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres")
+                     .withNetwork(network)
+                     .withNetworkAliases("db")
+                     .withDatabaseName("customer")
+                     .withUsername("skydan")
+                     .withPassword("password");
+             GenericContainer<?> app = new GenericContainer<>(System.getProperty("app-cds.training.image"))
+                     .withNetwork(network)
+                     .withEnv("SPRING_DATASOURCE_URL", "jdbc:postgresql://db:5432/customer")
+                     .withEnv("JAVA_TOOL_OPTIONS", "-XX:ArchiveClassesAtExit=/cds/" + ARCHIVE)
+                     .withFileSystemBind(directory.getAbsolutePath(), "/cds", BindMode.READ_WRITE)
+                     .withExposedPorts(8080)
+                     .waitingFor(Wait.forHttp("/ping").forStatusCode(200)
+                             .withStartupTimeout(Duration.ofMinutes(3)))) {
+            postgreSQLContainer.start();
+            app.start();
+
+            WebTestClient client = WebTestClient
+                    .bindToServer()
+                    .baseUrl("http://%s:%d".formatted(app.getHost(), app.getMappedPort(8080)))
+                    .responseTimeout(Duration.ofSeconds(30))
+                    .build();
+            for (int i = 0; i < ROUNDS; i++) {
+                journey(client);
+            }
+
+            // the archive is written while the JVM exits; a SIGKILL, which is how Testcontainers stops, skips it
+            app.getDockerClient()
+                    .stopContainerCmd(app.getContainerId())
+                    .withTimeout(120)
+                    .exec();
+        }
+
+        assertThat(new File(directory, ARCHIVE)).isNotEmpty();
+    }
+
+    private static void journey(WebTestClient client) {
+        String email = "cds-" + UUID.randomUUID() + "@skydan.com";
+
+        client.post()
+                .uri(AUTHENTICATION_PATH + "/login")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new AuthenticationRequest(email, "password"))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+
+        client.post()
+                .uri(CUSTOMER_PATH)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new CustomerRegistrationRequest("Training", email, "password", 30, "FEMALE"))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        AuthenticationResponse login = client.post()
+                .uri(AUTHENTICATION_PATH + "/login")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new AuthenticationRequest(email, "password"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(AuthenticationResponse.class)
+                .returnResult()
+                .getResponseBody();
+        String bearer = "Bearer " + login.token();
+        Long id = login.customerDTO().id();
+
+        client.get()
+                .uri(CUSTOMER_PATH + "?limit=50")
+                .header(AUTHORIZATION, bearer)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<List<CustomerDTO>>() {
+                });
+
+        client.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerDTO.class);
+
+        client.put()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new CustomerUpdateRequest("Trained", null, null, null))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        client.delete()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer)
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+}
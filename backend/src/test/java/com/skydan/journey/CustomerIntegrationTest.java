@@ -1,5 +1,7 @@
 package com.skydan.journey;
 
+import com.skydan.customer.CustomerChangesToken;
+import com.skydan.customer.CustomerController;
 import com.skydan.customer.CustomerDTO;
 import com.skydan.customer.CustomerRegistrationRequest;
 import com.skydan.customer.CustomerUpdateRequest;
@@ -7,16 +9,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
 
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -56,21 +66,10 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //Get all customers
-        List<CustomerDTO> allCustomers = webTestClient
-                .get()
-                .uri(CUSTOMER_PATH)
-                .accept(APPLICATION_JSON)
-                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
 
-        int id = allCustomers.stream()
+        long id = allCustomers.stream()
                 .filter(customer -> customer.email().equals(email))
                 .map(CustomerDTO::id)
                 .findFirst()
@@ -104,6 +103,60 @@ public class CustomerIntegrationTest {
                 .isEqualTo(expected);
     }
 
+    @Test
+    void canFollowChangesWithStreamToken() {
+        //Register a customer and exchange its token for a stream token
+        String jwtToken = register("example" + UUID.randomUUID() + "@skydan.com");
+
+        String streamToken = webTestClient
+                .post()
+                .uri(CUSTOMER_PATH + "/changes/token")
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerChangesToken.class)
+                .returnResult()
+                .getResponseBody()
+                .token();
+
+        //The stream token is not a bearer token
+        webTestClient
+                .get()
+                .uri(CUSTOMER_PATH)
+                .header(AUTHORIZATION, String.format("Bearer %s", streamToken))
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+
+        //Open the stream the way EventSource does, with the token in the query string
+        Flux<ServerSentEvent<String>> changes = webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(CUSTOMER_PATH + "/changes")
+                        .queryParam("access_token", streamToken)
+                        .build())
+                .accept(TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .getResponseBody();
+
+        //A registration arrives as a created event
+        String email = "example" + UUID.randomUUID() + "@skydan.com";
+        register(email);
+
+        StepVerifier.create(changes
+                        .filter(event -> "created".equals(event.event()))
+                        .filter(event -> event.data() != null && event.data().contains(email))
+                        .next())
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
     @Test
     void canDeleteCustomer() {
         //Create a registration request
@@ -148,20 +201,9 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //Get all customers
-        List<CustomerDTO> allCustomers = webTestClient
-                .get()
-                .uri(CUSTOMER_PATH)
-                .accept(APPLICATION_JSON)
-                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
-        int id = allCustomers.stream()
+        long id = allCustomers.stream()
                 .filter(customer -> customer.email().equals(email))
                 .map(CustomerDTO::id)
                 .findFirst()
@@ -217,20 +259,9 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //Get all customers
-        List<CustomerDTO> allCustomers = webTestClient
-                .get()
-                .uri(CUSTOMER_PATH)
-                .accept(APPLICATION_JSON)
-                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
-        int id = allCustomers.stream()
+        long id = allCustomers.stream()
                 .filter(customer -> customer.email().equals(email))
                 .map(CustomerDTO::id)
                 .findFirst()
@@ -272,4 +303,50 @@ public class CustomerIntegrationTest {
 
         assertThat(updatedCustomer).isEqualTo(expected);
     }
+
+    private String register(String email) {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                "Foo", email, "password", RANDOM.nextInt(18, 55), "MALE"
+        );
+        return webTestClient
+                .post()
+                .uri(CUSTOMER_PATH)
+                .accept(APPLICATION_JSON)
+                .contentType(APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(AUTHORIZATION)
+                .get(0);
+    }
+
+    private List<CustomerDTO> getAllCustomers(String jwtToken) {
+        List<CustomerDTO> allCustomers = new ArrayList<>();
+        String cursor = null;
+        do {
+            Optional<String> after = Optional.ofNullable(cursor);
+            EntityExchangeResult<List<CustomerDTO>> page = webTestClient
+                    .get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path(CUSTOMER_PATH)
+                            .queryParamIfPresent("after", after)
+                            .build())
+                    .accept(APPLICATION_JSON)
+                    .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {
+                    })
+                    .returnResult();
+
+            allCustomers.addAll(page.getResponseBody());
+            cursor = page.getResponseHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        return allCustomers;
+    }
 }
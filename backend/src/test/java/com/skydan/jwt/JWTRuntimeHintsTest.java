@@ -0,0 +1,29 @@
+package com.skydan.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.reflection;
+import static org.springframework.aot.hint.predicate.RuntimeHintsPredicates.resource;
+
+public class JWTRuntimeHintsTest {
+
+    @Test
+    void registersWhatJwtsLoadsByName() {
+        //Given
+        RuntimeHints hints = new RuntimeHints();
+
+        //When
+        new JWTRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //Then
+        assertThat(reflection().onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtParserBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(reflection().onType(TypeReference.of("io.jsonwebtoken.jackson.io.JacksonSerializer"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+    }
+}
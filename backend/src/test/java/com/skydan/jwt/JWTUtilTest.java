@@ -0,0 +1,90 @@
+package com.skydan.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class JWTUtilTest {
+
+    private JWTUtil underTest;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new JWTUtil(100, meterRegistry);
+    }
+
+    @Test
+    void canValidateIssuedToken() {
+        //Given
+        String token = underTest.issueToken("maria@gmail.com", "ROLE_USER");
+
+        //When
+        boolean actual = underTest.isTokenValid(token, "maria@gmail.com");
+
+        //Then
+        assertThat(actual).isTrue();
+        assertThat(underTest.getSubject(token)).isEqualTo("maria@gmail.com");
+    }
+
+    @Test
+    void canGetScopes() {
+        //Given
+        String token = underTest.issueToken("maria@gmail.com", List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        //When
+        List<String> actual = underTest.getScopes(token);
+
+        //Then
+        assertThat(actual).containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void streamTokensAreTellableFromBearerTokens() {
+        //Given
+        String streamToken = underTest.issueStreamToken("maria@gmail.com", List.of("ROLE_USER"));
+        String bearerToken = underTest.issueToken("maria@gmail.com", "ROLE_USER");
+
+        //When
+        //Then
+        assertThat(underTest.isStreamToken(streamToken)).isTrue();
+        assertThat(underTest.isStreamToken(bearerToken)).isFalse();
+        assertThat(underTest.getSubject(streamToken)).isEqualTo("maria@gmail.com");
+        assertThat(underTest.getScopes(streamToken)).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void verifiesTokenOnlyOnce() {
+        //Given
+        String token = underTest.issueToken("maria@gmail.com", "ROLE_USER");
+
+        //When
+        underTest.getSubject(token);
+        underTest.isTokenValid(token, "maria@gmail.com");
+
+        //Then
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void willThrowWhenTokenIsTampered() {
+        //Given
+        String token = underTest.issueToken("maria@gmail.com", "ROLE_USER");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getSubject(tampered))
+                .isInstanceOf(JwtException.class);
+    }
+}
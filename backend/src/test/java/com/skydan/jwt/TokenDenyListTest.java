@@ -0,0 +1,39 @@
+package com.skydan.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenDenyListTest {
+
+    private final TokenDenyList underTest = new TokenDenyList();
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRevoked() {
+        //Given
+        Date issuedAt = Date.from(Instant.now().minus(1, ChronoUnit.HOURS));
+
+        //When
+        underTest.revokeSubject("maria@gmail.com");
+
+        //Then
+        assertThat(underTest.isRevoked("maria@gmail.com", issuedAt)).isTrue();
+        assertThat(underTest.isRevoked("alex@gmail.com", issuedAt)).isFalse();
+    }
+
+    @Test
+    void tokensIssuedAfterRevocationAreNotRevoked() {
+        //Given
+        underTest.revokeSubject("maria@gmail.com");
+
+        //When
+        Date issuedAt = Date.from(Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        //Then
+        assertThat(underTest.isRevoked("maria@gmail.com", issuedAt)).isFalse();
+    }
+}
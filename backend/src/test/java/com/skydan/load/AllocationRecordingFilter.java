@@ -0,0 +1,49 @@
+package com.skydan.load;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Measures the bytes allocated by the request thread while the server handles a request, tagged by the
+ * endpoint name the load driver sends in {@link #ENDPOINT_HEADER}. Servlet requests run on a single
+ * thread, so this attributes allocation per endpoint even while the whole mix runs concurrently.
+ */
+class AllocationRecordingFilter extends OncePerRequestFilter {
+
+    static final String ENDPOINT_HEADER = "X-Load-Endpoint";
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<String, EndpointStats> stats;
+
+    AllocationRecordingFilter(Map<String, EndpointStats> stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        EndpointStats endpointStats = stats.get(String.valueOf(request.getHeader(ENDPOINT_HEADER)));
+        if (endpointStats == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            endpointStats.recordAllocation(threadMXBean.getThreadAllocatedBytes(threadId) - before);
+        }
+    }
+}
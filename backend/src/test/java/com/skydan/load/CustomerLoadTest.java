@@ -0,0 +1,233 @@
+package com.skydan.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skydan.AbstractTestcontainers;
+import com.skydan.auth.AuthenticationRequest;
+import com.skydan.auth.AuthenticationResponse;
+import com.skydan.customer.CustomerDTO;
+import com.skydan.customer.CustomerRegistrationRequest;
+import com.skydan.customer.CustomerUpdateRequest;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Drives the register, login, list, get, update and delete mix from {@code load.users} concurrent users
+ * against a real PostgreSQL, then checks every endpoint against the budgets in application-load.yml.
+ * Run with {@code mvn -Pload-test test}; a soak run is the same test with a longer {@code -Dload.duration}.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles("load")
+public class CustomerLoadTest extends AbstractTestcontainers {
+
+    private static final String AUTHENTICATION_PATH = "/api/v1/auth";
+    private static final String CUSTOMER_PATH = "/api/v1/customers";
+    private static final List<String> ENDPOINTS = List.of("register", "login", "list", "get", "update", "delete");
+
+    private static final Map<String, EndpointStats> STATS = new ConcurrentHashMap<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private LoadTestProperties properties;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void customerEndpointsStayWithinBudget() throws Exception {
+        WebTestClient client = webTestClient.mutate()
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+
+        run(client, properties.warmup());
+        resetStats();
+        long start = System.nanoTime();
+        run(client, properties.duration());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<EndpointStats.Summary> summaries = ENDPOINTS.stream()
+                .map(endpoint -> STATS.get(endpoint).summarize(endpoint, elapsed))
+                .toList();
+        report(summaries);
+
+        SoftAssertions softly = new SoftAssertions();
+        for (EndpointStats.Summary summary : summaries) {
+            LoadTestProperties.Budget budget = properties.budgets().get(summary.endpoint());
+            if (budget == null) {
+                continue;
+            }
+            softly.assertThat(summary.errors())
+                    .as("%s errors", summary.endpoint())
+                    .isZero();
+            softly.assertThat(summary.throughput())
+                    .as("%s throughput (req/s)", summary.endpoint())
+                    .isGreaterThanOrEqualTo(budget.minThroughput());
+            softly.assertThat(summary.p50Millis())
+                    .as("%s p50 (ms)", summary.endpoint())
+                    .isLessThanOrEqualTo(budget.p50().toNanos() / 1e6);
+            softly.assertThat(summary.p99Millis())
+                    .as("%s p99 (ms)", summary.endpoint())
+                    .isLessThanOrEqualTo(budget.p99().toNanos() / 1e6);
+            softly.assertThat(summary.p999Millis())
+                    .as("%s p999 (ms)", summary.endpoint())
+                    .isLessThanOrEqualTo(budget.p999().toNanos() / 1e6);
+            softly.assertThat(summary.allocatedBytesPerRequest())
+                    .as("%s allocated bytes per request", summary.endpoint())
+                    .isLessThanOrEqualTo(budget.allocationPerRequest().toBytes());
+        }
+        softly.assertAll();
+    }
+
+    private void run(WebTestClient client, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(properties.users());
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < properties.users(); i++) {
+                running.add(users.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        iteration(client);
+                    }
+                }));
+            }
+            for (Future<?> user : running) {
+                user.get();
+            }
+        } finally {
+            users.shutdownNow();
+        }
+    }
+
+    private void iteration(WebTestClient client) {
+        String email = "load-" + UUID.randomUUID() + "@skydan.com";
+
+        EntityExchangeResult<Void> registered = call("register", client.post()
+                .uri(CUSTOMER_PATH)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new CustomerRegistrationRequest("Load", email, "password", 30, "MALE")), Void.class);
+        if (registered == null) {
+            return;
+        }
+
+        EntityExchangeResult<AuthenticationResponse> login = call("login", client.post()
+                .uri(AUTHENTICATION_PATH + "/login")
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new AuthenticationRequest(email, "password")), AuthenticationResponse.class);
+        if (login == null) {
+            return;
+        }
+        String bearer = "Bearer " + login.getResponseBody().token();
+        Long id = login.getResponseBody().customerDTO().id();
+
+        call("list", client.get()
+                .uri(CUSTOMER_PATH + "?limit=50")
+                .header(AUTHORIZATION, bearer), new ParameterizedTypeReference<List<CustomerDTO>>() {
+        });
+        call("get", client.get()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer), CustomerDTO.class);
+        call("update", client.put()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(new CustomerUpdateRequest("Load " + id, null, null, null)), CustomerDTO.class);
+        // removing the customer again keeps the table at a steady size however long the run is
+        call("delete", client.delete()
+                .uri(CUSTOMER_PATH + "/{id}", id)
+                .header(AUTHORIZATION, bearer), Void.class);
+    }
+
+    private <T> EntityExchangeResult<T> call(String endpoint,
+                                             WebTestClient.RequestHeadersSpec<?> request,
+                                             Class<T> bodyType) {
+        return call(endpoint, request, ParameterizedTypeReference.forType(bodyType));
+    }
+
+    private <T> EntityExchangeResult<T> call(String endpoint,
+                                             WebTestClient.RequestHeadersSpec<?> request,
+                                             ParameterizedTypeReference<T> bodyType) {
+        EndpointStats stats = STATS.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            EntityExchangeResult<T> result = request
+                    .header(AllocationRecordingFilter.ENDPOINT_HEADER, endpoint)
+                    .exchange()
+                    .expectBody(bodyType)
+                    .returnResult();
+            stats.recordLatency(System.nanoTime() - start);
+            if (!result.getStatus().is2xxSuccessful()) {
+                stats.recordError();
+                return null;
+            }
+            return result;
+        } catch (RuntimeException e) {
+            stats.recordError();
+            return null;
+        }
+    }
+
+    private void report(List<EndpointStats.Summary> summaries) throws IOException {
+        System.out.printf("%-10s %9s %7s %10s %10s %10s %10s %14s %12s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "alloc B/req", "alloc MB/s");
+        for (EndpointStats.Summary summary : summaries) {
+            System.out.printf("%-10s %9d %7d %10.1f %10.2f %10.2f %10.2f %14d %12.1f%n",
+                    summary.endpoint(), summary.requests(), summary.errors(), summary.throughput(),
+                    summary.p50Millis(), summary.p99Millis(), summary.p999Millis(),
+                    summary.allocatedBytesPerRequest(), summary.allocationRateMbPerSecond());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", properties.users());
+        report.put("durationSeconds", properties.duration().toSeconds());
+        report.put("endpoints", summaries);
+        File file = new File(properties.report());
+        file.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    private static void resetStats() {
+        ENDPOINTS.forEach(endpoint -> STATS.put(endpoint, new EndpointStats()));
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(LoadTestProperties.class)
+    static class LoadTestConfiguration {
+
+        @Bean
+        FilterRegistrationBean<AllocationRecordingFilter> allocationRecordingFilter() {
+            resetStats();
+            FilterRegistrationBean<AllocationRecordingFilter> registration =
+                    new FilterRegistrationBean<>(new AllocationRecordingFilter(STATS));
+            // outermost, so the security filter chain is part of what gets measured
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
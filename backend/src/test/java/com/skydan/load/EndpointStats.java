@@ -0,0 +1,73 @@
+package com.skydan.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies, errors and server-side allocations for one endpoint of the load mix.
+ * Every latency is kept, so the reported percentiles are exact rather than bucketed.
+ */
+class EndpointStats {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong allocationSamples = new AtomicLong();
+
+    synchronized void recordLatency(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    void recordAllocation(long bytes) {
+        allocatedBytes.addAndGet(bytes);
+        allocationSamples.incrementAndGet();
+    }
+
+    synchronized Summary summarize(String endpoint, Duration elapsed) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long samples = allocationSamples.get();
+        double seconds = elapsed.toNanos() / 1e9;
+        return new Summary(
+                endpoint,
+                count,
+                errors.get(),
+                count / seconds,
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.99) / 1e6,
+                percentile(sorted, 0.999) / 1e6,
+                samples == 0 ? 0 : allocatedBytes.get() / samples,
+                allocatedBytes.get() / seconds / (1024 * 1024)
+        );
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    record Summary(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughput,
+            double p50Millis,
+            double p99Millis,
+            double p999Millis,
+            long allocatedBytesPerRequest,
+            double allocationRateMbPerSecond
+    ) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.skydan.load;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties("load")
+public record LoadTestProperties(
+        int users,
+        Duration warmup,
+        Duration duration,
+        String report,
+        Map<String, Budget> budgets
+) {
+
+    public record Budget(
+            double minThroughput,
+            Duration p50,
+            Duration p99,
+            Duration p999,
+            DataSize allocationPerRequest
+    ) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.skydan.security;
+
+import com.skydan.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PasswordHasherTest {
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHasher underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new PasswordHasher(passwordEncoder, 2, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void encode() {
+        //When
+        String actual = underTest.encode("password");
+
+        //Then
+        assertThat(passwordEncoder.matches("password", actual)).isTrue();
+    }
+
+    @Test
+    void encodeAllKeepsOrderWhenQueueIsFull() {
+        //Given
+        List<String> rawPasswords = List.of("one", "two", "three", "four", "five", "six");
+
+        //When
+        List<String> actual = underTest.encodeAll(rawPasswords);
+
+        //Then
+        assertThat(actual).hasSize(rawPasswords.size());
+        for (int i = 0; i < rawPasswords.size(); i++) {
+            assertThat(passwordEncoder.matches(rawPasswords.get(i), actual.get(i))).isTrue();
+        }
+    }
+
+    @Test
+    void encodeAsync() {
+        //When
+        String actual = underTest.encodeAsync("password").join();
+
+        //Then
+        assertThat(passwordEncoder.matches("password", actual)).isTrue();
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHasher saturated = new PasswordHasher(blockingEncoder, 2, 1, new SimpleMeterRegistry());
+        try {
+            // two running, one queued
+            List<CompletableFuture<String>> hashes = List.of(
+                    saturated.encodeAsync("one"),
+                    saturated.encodeAsync("two"),
+                    saturated.encodeAsync("three")
+            );
+
+            //When
+            //Then
+            assertThatThrownBy(() -> saturated.encode("four"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            release.countDown();
+            assertThat(hashes).allSatisfy(hash -> assertThat(hash.join()).isNotBlank());
+        } finally {
+            release.countDown();
+            saturated.destroy();
+        }
+    }
+
+    @Test
+    void publishesQueueMetrics() {
+        //When
+        underTest.encode("password");
+
+        //Then
+        assertThat(meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("executor.queue.remaining").tag("name", "password.hashing").gauge().value())
+                .isEqualTo(1);
+    }
+}
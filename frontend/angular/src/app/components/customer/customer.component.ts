@@ -1,19 +1,22 @@
-import {Component, OnInit} from '@angular/core';
+import {Component, OnDestroy, OnInit} from '@angular/core';
 import {CustomerDTO} from "../../models/customer-dto";
 import {CustomerService} from "../../services/customer/customer.service";
 import {CustomerRegistrationRequest} from "../../models/customer-registration-request";
 import {ConfirmationService, MessageService} from "primeng/api";
+import {Subscription} from "rxjs";
+import {CustomerChangeEvent} from "../../models/customer-change-event";
 
 @Component({
   selector: 'app-customer',
   templateUrl: './customer.component.html',
   styleUrls: ['./customer.component.scss']
 })
-export class CustomerComponent implements OnInit{
+export class CustomerComponent implements OnInit, OnDestroy {
   display = false;
   operation: 'create' | 'update' = 'create';
   customers: CustomerDTO[] = [];
   customer: CustomerRegistrationRequest = {};
+  private changes?: Subscription;
 
   constructor(
     private customerService: CustomerService,
@@ -21,8 +24,32 @@ export class CustomerComponent implements OnInit{
     private confirmationService: ConfirmationService
   ) {}
 
+  // the list is loaded once and then kept current from the change stream
   ngOnInit(): void {
     this.findAllCustomers()
+    this.changes = this.customerService.changes()
+      .subscribe({
+        next: (change) => this.applyChange(change)
+      });
+  }
+
+  ngOnDestroy(): void {
+    this.changes?.unsubscribe();
+  }
+
+  private applyChange(change: CustomerChangeEvent) {
+    if (change.type === 'RESET') {
+      this.findAllCustomers();
+    } else if (change.type === 'DELETED') {
+      this.customers = this.customers.filter(customer => customer.id !== change.customerId);
+    } else if (change.customer) {
+      const customer = change.customer;
+      if (this.customers.some(existing => existing.id === change.customerId)) {
+        this.customers = this.customers.map(existing => existing.id === change.customerId ? customer : existing);
+      } else if (change.type === 'CREATED') {
+        this.customers = [...this.customers, customer];
+      }
+    }
   }
 
   private findAllCustomers() {
@@ -41,7 +68,6 @@ export class CustomerComponent implements OnInit{
         this.customerService.registerCustomer(customer)
           .subscribe({
             next: () => {
-              this.findAllCustomers();
               this.display = false;
               this.customer = {};
               this.messageService.add(
@@ -57,7 +83,6 @@ export class CustomerComponent implements OnInit{
         this.customerService.updateCustomer(customer.id, customer)
           .subscribe({
             next: () => {
-              this.findAllCustomers();
               this.display = false;
               this.customer = {};
               this.messageService.add(
@@ -81,7 +106,6 @@ export class CustomerComponent implements OnInit{
         this.customerService.deleteCustomer(customer.id)
           .subscribe({
             next: () => {
-              this.findAllCustomers();
               this.messageService.add(
                 {
                   severity: 'success',
@@ -0,0 +1,8 @@
+import {CustomerDTO} from "./customer-dto";
+
+export interface CustomerChangeEvent {
+  type: 'CREATED' | 'UPDATED' | 'DELETED' | 'RESET';
+  offset?: number;
+  customerId?: number;
+  customer?: CustomerDTO;
+}
@@ -0,0 +1,3 @@
+export interface CustomerChangesToken {
+  token: string;
+}
@@ -1,10 +1,12 @@
 import {Injectable} from '@angular/core';
-import {HttpClient} from "@angular/common/http";
-import {Observable} from "rxjs";
+import {HttpClient, HttpParams, HttpResponse} from "@angular/common/http";
+import {EMPTY, expand, Observable, reduce} from "rxjs";
 import {CustomerDTO} from "../../models/customer-dto";
 import {environment} from "../../../environments/environment";
 import {CustomerRegistrationRequest} from "../../models/customer-registration-request";
 import {CustomerUpdateRequest} from "../../models/customer-update-request";
+import {CustomerChangeEvent} from "../../models/customer-change-event";
+import {CustomerChangesToken} from "../../models/customer-changes-token";
 
 @Injectable({
   providedIn: 'root'
@@ -18,8 +20,74 @@ export class CustomerService {
   ) {
   }
 
+  // the API returns one page at a time; follow X-Next-Cursor until the last page
   findAll(): Observable<CustomerDTO[]> {
-    return this.http.get<CustomerDTO[]>(this.customerUrl);
+    return this.findPage().pipe(
+      expand(page => {
+        const after = page.headers.get('X-Next-Cursor');
+        return after ? this.findPage(after) : EMPTY;
+      }),
+      reduce((customers: CustomerDTO[], page) => customers.concat(page.body ?? []), [])
+    );
+  }
+
+  // EventSource cannot send an Authorization header, so every connection opens with a short-lived stream token.
+  // The browser reconnects dropped streams itself and resumes from the last event; once the token has expired a
+  // reconnect is refused, and a new token is fetched. A RESET event means changes were missed
+  changes(): Observable<CustomerChangeEvent> {
+    return new Observable<CustomerChangeEvent>(subscriber => {
+      let source: EventSource | undefined;
+      let lastEventId: string | undefined;
+      let retry: ReturnType<typeof setTimeout> | undefined;
+      let closed = false;
+
+      const reopenLater = () => {
+        if (!closed) {
+          retry = setTimeout(open, 5000);
+        }
+      };
+
+      const open = () => {
+        this.http.post<CustomerChangesToken>(`${this.customerUrl}/changes/token`, null)
+          .subscribe({
+            next: ({token}) => {
+              if (closed) {
+                return;
+              }
+              let params = new HttpParams().set('access_token', token);
+              if (lastEventId) {
+                params = params.set('after', lastEventId);
+              }
+              const eventSource = new EventSource(`${this.customerUrl}/changes?${params.toString()}`);
+              ['created', 'updated', 'deleted'].forEach(type =>
+                eventSource.addEventListener(type, event => {
+                  const message = event as MessageEvent<string>;
+                  lastEventId = message.lastEventId;
+                  subscriber.next(JSON.parse(message.data));
+                })
+              );
+              eventSource.addEventListener('reset', event => {
+                lastEventId = (event as MessageEvent<string>).lastEventId;
+                subscriber.next({type: 'RESET'});
+              });
+              eventSource.onerror = () => {
+                if (eventSource.readyState === EventSource.CLOSED) {
+                  reopenLater();
+                }
+              };
+              source = eventSource;
+            },
+            error: () => reopenLater()
+          });
+      };
+
+      open();
+      return () => {
+        closed = true;
+        clearTimeout(retry);
+        source?.close();
+      };
+    });
   }
 
   registerCustomer(customer: CustomerRegistrationRequest): Observable<void> {
@@ -33,4 +101,12 @@ export class CustomerService {
   updateCustomer(id: number | undefined, customer: CustomerUpdateRequest): Observable<void> {
     return this.http.put<void>(`${this.customerUrl}/${id}`, customer);
   }
+
+  private findPage(after?: string): Observable<HttpResponse<CustomerDTO[]>> {
+    let params = new HttpParams().set('limit', 500);
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CustomerDTO[]>(this.customerUrl, {params, observe: 'response'});
+  }
 }
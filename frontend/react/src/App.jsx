@@ -6,7 +6,7 @@ import {
 } from '@chakra-ui/react';
 import SidebarWithHeader from "./components/shared/SideBar.jsx";
 import {useEffect, useState} from "react";
-import {getCustomers} from "./services/client.js";
+import {getCustomers, subscribeToCustomerChanges} from "./services/client.js";
 import CardWithImage from "./components/customer/Card.jsx";
 import CreateCustomerDrawer from "./components/customer/CreateCustomerDrawer.jsx";
 import {errorNotification} from "./services/notification.js";
@@ -32,8 +32,22 @@ const App = () => {
         })
     }
 
+    // the list is loaded once and then kept current from the change stream; a reset means events were missed
+    const applyChange = (change) => {
+        setCustomers(current => {
+            if (change.type === "DELETED") {
+                return current.filter(customer => customer.id !== change.customerId);
+            }
+            if (current.some(customer => customer.id === change.customerId)) {
+                return current.map(customer => customer.id === change.customerId ? change.customer : customer);
+            }
+            return change.type === "CREATED" ? [...current, change.customer] : current;
+        })
+    }
+
     useEffect(() => {
         fetchCustomers()
+        return subscribeToCustomerChanges(applyChange, fetchCustomers)
     }, [])
 
     if (loading) {
@@ -53,9 +67,7 @@ const App = () => {
     if (err) {
         return (
             <SidebarWithHeader>
-                <CreateCustomerDrawer
-                    fetchCustomers={fetchCustomers}
-                />
+                <CreateCustomerDrawer/>
                 <Text mt={5}>Ooops there was an error</Text>
             </SidebarWithHeader>
         )
@@ -64,9 +76,7 @@ const App = () => {
     if (customers.length <= 0) {
         return (
             <SidebarWithHeader>
-                <CreateCustomerDrawer
-                    fetchCustomers={fetchCustomers}
-                />
+                <CreateCustomerDrawer/>
                 <Text mt={5}>No customers available</Text>
             </SidebarWithHeader>
         )
@@ -74,9 +84,7 @@ const App = () => {
 
     return (
         <SidebarWithHeader>
-            <CreateCustomerDrawer
-                fetchCustomers={fetchCustomers}
-            />
+            <CreateCustomerDrawer/>
             <Wrap spacing='30px' justify='center' >
                 {customers.map((customer, index) => (
                     <WrapItem key={index}>
@@ -84,7 +92,6 @@ const App = () => {
                         <CardWithImage
                             {...customer}
                             imageNumber={index}
-                            fetchCustomers={fetchCustomers}
                         />
                     </center>
                     </WrapItem>
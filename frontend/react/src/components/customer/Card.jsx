@@ -25,7 +25,7 @@ import {deleteCustomer} from "../../services/client.js";
 import {errorNotification, successNotification} from "../../services/notification.js";
 import UpdateCustomerDrawer from "./UpdateCustomerDrawer.jsx";
 
-export default function CardWithImage({ id, name, email, age, gender, imageNumber, fetchCustomers }) {
+export default function CardWithImage({ id, name, email, age, gender, imageNumber }) {
     const randomUserGender = gender === "MALE" ? "men" : "women";
     const { isOpen, onOpen, onClose } = useDisclosure()
     const cancelRef = useRef()
@@ -76,7 +76,6 @@ export default function CardWithImage({ id, name, email, age, gender, imageNumbe
                         <UpdateCustomerDrawer
                             initialValues={{name, email, age }}
                             customerId={id}
-                            fetchCustomers={fetchCustomers}
                         />
                     </Stack>
                     <Stack>
@@ -123,7 +122,6 @@ export default function CardWithImage({ id, name, email, age, gender, imageNumbe
                                                         'Customer deleted',
                                                         `${name} was successfully deleted`
                                                     )
-                                                    fetchCustomers();
                                                 }).catch(err => {
                                                     console.log(err)
                                                     errorNotification(
@@ -15,7 +15,7 @@ import CreateCustomerForm from "../shared/CreateCustomerForm.jsx";
 const AddIcon = () => "+";
 const CloseIcon = () => "x";
 
-const CreateCustomerDrawer = ({ fetchCustomers }) => {
+const CreateCustomerDrawer = () => {
     const { isOpen, onOpen, onClose } = useDisclosure()
     return <>
         <Button
@@ -33,7 +33,7 @@ const CreateCustomerDrawer = ({ fetchCustomers }) => {
 
                 <DrawerBody>
                     <CreateCustomerForm
-                        onSuccess={fetchCustomers}
+                        onSuccess={onClose}
                     />
                 </DrawerBody>
 
@@ -13,7 +13,7 @@ import {
 import UpdateCustomerForm from "./UpdateCustomerForm.jsx";
 const CloseIcon = () => "x";
 
-const UpdateCustomerDrawer = ({ fetchCustomers, initialValues, customerId }) => {
+const UpdateCustomerDrawer = ({ initialValues, customerId }) => {
     const { isOpen, onOpen, onClose } = useDisclosure()
     return <>
         <Button
@@ -36,7 +36,6 @@ const UpdateCustomerDrawer = ({ fetchCustomers, initialValues, customerId }) =>
 
                 <DrawerBody>
                     <UpdateCustomerForm
-                        fetchCustomers={fetchCustomers}
                         initialValues={initialValues}
                         customerId={customerId}
                     />
@@ -23,7 +23,7 @@ const MyTextInput = ({label, ...props}) => {
     );
 };
 
-const UpdateCustomerForm = ({ fetchCustomers, initialValues, customerId }) => {
+const UpdateCustomerForm = ({ initialValues, customerId }) => {
     return (
         <>
             <Formik
@@ -49,7 +49,6 @@ const UpdateCustomerForm = ({ fetchCustomers, initialValues, customerId }) => {
                                 "Customer updated",
                                 `${updatedCustomer.name} was successfully updated`
                             )
-                            fetchCustomers();
                         }).catch(err => {
                         console.log(err);
                         errorNotification(
@@ -6,17 +6,81 @@ const getAuthConfig = () => ({
     }
 })
 
+// the API returns one page at a time; follow X-Next-Cursor until the last page
 export const getCustomers = async () => {
     try {
-        return await axios.get(
-            `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers`,
-            getAuthConfig()
-        )
+        const customers = [];
+        let after;
+        let res;
+        do {
+            res = await axios.get(
+                `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers`,
+                {...getAuthConfig(), params: {limit: 500, after}}
+            )
+            customers.push(...res.data);
+            after = res.headers["x-next-cursor"];
+        } while (after)
+        return {...res, data: customers};
     } catch (e) {
         throw e;
     }
 }
 
+// EventSource cannot send an Authorization header, so every connection opens with a short-lived stream token.
+// The browser reconnects dropped streams itself and resumes from the last event; once the token has expired a
+// reconnect is refused, and a new token is fetched. Returns a function that closes the stream
+export const subscribeToCustomerChanges = (onChange, onReset) => {
+    const changesUrl = `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/changes`;
+    let source;
+    let lastEventId;
+    let retry;
+    let closed = false;
+
+    const reopenLater = () => {
+        if (!closed) {
+            retry = setTimeout(open, 5000);
+        }
+    }
+
+    const open = async () => {
+        try {
+            const res = await axios.post(`${changesUrl}/token`, null, getAuthConfig());
+            if (closed) {
+                return;
+            }
+            const params = new URLSearchParams({access_token: res.data.token});
+            if (lastEventId) {
+                params.set("after", lastEventId);
+            }
+            source = new EventSource(`${changesUrl}?${params}`);
+            ["created", "updated", "deleted"].forEach(type =>
+                source.addEventListener(type, event => {
+                    lastEventId = event.lastEventId;
+                    onChange(JSON.parse(event.data));
+                })
+            );
+            source.addEventListener("reset", event => {
+                lastEventId = event.lastEventId;
+                onReset();
+            });
+            source.onerror = () => {
+                if (source.readyState === EventSource.CLOSED) {
+                    reopenLater();
+                }
+            };
+        } catch (e) {
+            reopenLater();
+        }
+    }
+
+    open();
+    return () => {
+        closed = true;
+        clearTimeout(retry);
+        source?.close();
+    };
+}
+
 export const saveCustomer = async (customer) => {
     try {
         return await axios.post(